@@ -0,0 +1,63 @@
+package com.tanmay.secure_e_commerce.cache;
+
+import com.tanmay.secure_e_commerce.event.CategoriesChangedEvent;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory versions of the product and category collections, used as ETags so an unchanged
+ * poll is answered with 304 before the database is queried. The epoch changes on every restart,
+ * so a tag handed out by an earlier process never matches. Versions are bumped after the
+ * {@link ProductCatalogCache} eviction, so a new tag is never paired with a stale cached body.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong products = new AtomicLong();
+    private final AtomicLong categories = new AtomicLong();
+    private volatile Instant productsModified = Instant.now();
+    private volatile Instant categoriesModified = productsModified;
+
+    public String productsTag() {
+        return epoch + "-" + products.get() + "." + categories.get();
+    }
+
+    public String categoriesTag() {
+        return epoch + "-" + categories.get();
+    }
+
+    public String categoriesVersion() {
+        return epoch + "." + categories.get();
+    }
+
+    public Instant productsModified() {
+        return productsModified;
+    }
+
+    public Instant categoriesModified() {
+        return categoriesModified;
+    }
+
+    // The modified time is written first, so a reader that sees the new version also sees the new time
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        productsModified = Instant.now();
+        products.incrementAndGet();
+    }
+
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        Instant now = Instant.now();
+        categoriesModified = now;
+        productsModified = now;
+        categories.incrementAndGet();
+    }
+}
@@ -0,0 +1,118 @@
+package com.tanmay.secure_e_commerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tanmay.secure_e_commerce.exception.ConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Responses of requests sent with an {@code Idempotency-Key}, per user and key. The first request
+ * with a key runs; a repeat gets the stored response back with {@code Idempotent-Replayed: true},
+ * and a repeat that arrives while the first is still running waits for it instead of running
+ * again, for at most {@code orders.idempotency.wait-seconds} before getting a 409. A failed request
+ * stores nothing, so its retry runs afresh. Keys are bounded in number and
+ * expire after {@code orders.idempotency.ttl-seconds}. Keys are held in this instance only. Hit
+ * and miss counts are published as the {@code cache.*} metrics with {@code cache=idempotencyKeys}.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${orders.idempotency.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${orders.idempotency.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${orders.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Key, Entry> entries;
+
+    private record Key(Long userId, String idempotencyKey) {
+    }
+
+    private record Entry(Object fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotencyKeys");
+    }
+
+    /**
+     * Runs {@code work} once per user and key. {@code fingerprint} identifies the request body;
+     * reusing a key for a different body is a 409.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(Long userId, String idempotencyKey, Object fingerprint, Supplier<ResponseEntity<T>> work) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Key key = new Key(userId, idempotencyKey);
+        Entry created = new Entry(fingerprint, new CompletableFuture<>());
+        Entry entry = entries.get(key, k -> created);
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new ConflictException("Idempotency-Key was already used for a different request");
+        }
+
+        if (entry != created) {
+            ResponseEntity<T> stored = (ResponseEntity<T>) await(entry);
+            return ResponseEntity.status(stored.getStatusCode())
+                    .headers(stored.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(stored.getBody());
+        }
+
+        try {
+            ResponseEntity<T> response = work.get();
+            created.response().complete(response);
+            return response;
+        } catch (Throwable e) {
+            entries.asMap().remove(key, created);
+            created.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ResponseEntity<?> await(Entry entry) {
+        try {
+            return entry.response().get(waitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("The request with this Idempotency-Key failed", e.getCause());
+        }
+    }
+}
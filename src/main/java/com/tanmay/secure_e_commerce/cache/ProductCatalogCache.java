@@ -0,0 +1,101 @@
+package com.tanmay.secure_e_commerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.event.CategoriesChangedEvent;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process read cache for the public catalog endpoints. Single products are evicted by id and
+ * every cached listing is dropped once a write commits; a category change drops everything. Hit, miss and eviction counts are
+ * published as the {@code cache.*} metrics with {@code cache=products} and {@code cache=productLists}.
+ */
+@Component
+public class ProductCatalogCache {
+
+    @Value("${catalog.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${catalog.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, ProductDTO> products;
+    private Cache<String, Object> productLists;
+
+    // Bumped on every invalidation so a load that raced with a commit never stays cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        products = newCache();
+        productLists = newCache();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, productLists, "productLists");
+    }
+
+    private <K, V> Cache<K, V> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public ProductDTO getProduct(Long id, Supplier<ProductDTO> loader) {
+        return get(products, id, loader);
+    }
+
+    // Listings are keyed by the caller (page cursor, category, ...) and may be any list or page type
+    @SuppressWarnings("unchecked")
+    public <T> T getList(String key, Supplier<T> loader) {
+        return (T) get(productLists, key, loader::get);
+    }
+
+    private <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        V loaded = loader.get();
+        cache.put(key, loaded);
+        if (generation.get() != loadedAt) {
+            cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        generation.incrementAndGet();
+        products.invalidateAll(event.productIds());
+        productLists.invalidateAll();
+    }
+
+    // Cached products carry their category name, so any category change drops everything
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        generation.incrementAndGet();
+        products.invalidateAll();
+        productLists.invalidateAll();
+    }
+}
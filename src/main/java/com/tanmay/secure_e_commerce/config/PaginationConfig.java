@@ -0,0 +1,24 @@
+package com.tanmay.secure_e_commerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PaginationConfig {
+
+    @Value("${pagination.default-size:20}")
+    private int defaultSize;
+
+    @Value("${pagination.max-size:100}")
+    private int maxSize;
+
+    public int resolveSize(Integer requested) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(requested, maxSize);
+    }
+}
@@ -1,8 +1,16 @@
 package com.tanmay.secure_e_commerce.config;
 
+import com.tanmay.secure_e_commerce.security.AdaptiveBCryptPasswordEncoder;
+import com.tanmay.secure_e_commerce.security.BoundedPasswordEncoder;
 import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
 import com.tanmay.secure_e_commerce.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,7 +20,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -21,15 +28,33 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Hashing runs on its own bounded pool, so a login storm cannot take every request thread.
+    // A fixed BCrypt cost unless strength is 0, then measured against auth.hashing.target-ms at startup
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${auth.hashing.threads:0}") int threads,
+            @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.hashing.strength:10}") int strength,
+            @Value("${auth.hashing.target-ms:250}") long targetMillis,
+            @Value("${auth.hashing.min-strength:10}") int minStrength,
+            @Value("${auth.hashing.max-strength:14}") int maxStrength,
+            @Value("${auth.hashing.max-cost-excess:1}") int maxCostExcess,
+            MeterRegistry meterRegistry) {
+        int cost = strength > 0 ? strength : AdaptiveBCryptPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength);
+        log.info("Password hashing with BCrypt cost {}", cost);
+        Gauge.builder("auth.hashing.strength", () -> cost).register(meterRegistry);
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new AdaptiveBCryptPasswordEncoder(cost, maxCostExcess), poolSize, queueCapacity, meterRegistry);
     }
 
     @Bean
@@ -42,9 +67,14 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches finish a response whose request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/products", "/api/products/**").permitAll()
                         .requestMatchers("/api/categories").permitAll()
+                        .requestMatchers("/api/export/**", "/api/import/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
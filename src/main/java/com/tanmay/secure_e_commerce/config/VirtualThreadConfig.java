@@ -0,0 +1,35 @@
+package com.tanmay.secure_e_commerce.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Guardrails for {@code spring.threads.virtual.enabled=true}, which moves Tomcat request handling,
+ * {@code @Scheduled} jobs and the application task executor onto virtual threads. The
+ * connection pool stays the hard limit on database work (see {@code spring.datasource.hikari}).
+ * The request limit keeps the number of requests queued on it bounded.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Value("${virtual-threads.max-concurrent-requests:400}")
+    private int maxConcurrentRequests;
+
+    @Value("${virtual-threads.queue-timeout-ms:500}")
+    private long queueTimeoutMs;
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(maxConcurrentRequests, queueTimeoutMs, meterRegistry));
+        // Ahead of security, so a shed request costs no token parsing
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -2,6 +2,7 @@ package com.tanmay.secure_e_commerce.controller;
 
 import com.tanmay.secure_e_commerce.dto.AuthRequest;
 import com.tanmay.secure_e_commerce.dto.AuthResponse;
+import com.tanmay.secure_e_commerce.dto.RefreshRequest;
 import com.tanmay.secure_e_commerce.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,4 +31,10 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    // Trades a refresh token for a new access token and a new refresh token; the old one is spent
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        AuthResponse response = authService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(response);
+    }
 }
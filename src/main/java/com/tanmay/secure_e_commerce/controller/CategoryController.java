@@ -1,12 +1,15 @@
 package com.tanmay.secure_e_commerce.controller;
 
+import com.tanmay.secure_e_commerce.cache.CatalogVersion;
 import com.tanmay.secure_e_commerce.dto.CategoryDTO;
 import com.tanmay.secure_e_commerce.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,6 +20,9 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     @PostMapping
     public ResponseEntity<CategoryDTO> createCategory(@Valid @RequestBody CategoryDTO categoryDTO) {
         CategoryDTO created = categoryService.createCategory(categoryDTO);
@@ -37,15 +43,22 @@ public class CategoryController {
         return ResponseEntity.noContent().build();
     }
 
+    // Both reads are tagged with the collection version, so a matching poll never reaches the database
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest request) {
+        if (request.checkNotModified(catalogVersion.categoriesTag(), catalogVersion.categoriesModified().toEpochMilli())) {
+            return null;
+        }
         List<CategoryDTO> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categories);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(catalogVersion.categoriesTag(), catalogVersion.categoriesModified().toEpochMilli())) {
+            return null;
+        }
         CategoryDTO category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(category);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(category);
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.tanmay.secure_e_commerce.controller;
+
+import com.tanmay.secure_e_commerce.enums.DataFormat;
+import com.tanmay.secure_e_commerce.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/orders")
+    public void exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                             HttpServletResponse response) throws IOException {
+        DataFormat dataFormat = DataFormat.from(format);
+        prepare(response, dataFormat, "orders");
+        exportService.exportOrders(dataFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/products")
+    public void exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        DataFormat dataFormat = DataFormat.from(format);
+        prepare(response, dataFormat, "products");
+        exportService.exportProducts(dataFormat, response.getOutputStream());
+    }
+
+    private void prepare(HttpServletResponse response, DataFormat format, String name) {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + format.getExtension() + "\"");
+    }
+}
@@ -0,0 +1,30 @@
+package com.tanmay.secure_e_commerce.controller;
+
+import com.tanmay.secure_e_commerce.dto.ImportReport;
+import com.tanmay.secure_e_commerce.enums.DataFormat;
+import com.tanmay.secure_e_commerce.service.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    // The body is read as a stream, never buffered whole
+    @PostMapping("/products")
+    public ResponseEntity<ImportReport> importProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                       HttpServletRequest request) throws IOException {
+        ImportReport report = productImportService.importProducts(DataFormat.from(format), request.getInputStream());
+        return ResponseEntity.ok(report);
+    }
+}
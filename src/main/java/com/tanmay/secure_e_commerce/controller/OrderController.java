@@ -1,14 +1,21 @@
 package com.tanmay.secure_e_commerce.controller;
 
+import com.tanmay.secure_e_commerce.cache.IdempotencyStore;
+import com.tanmay.secure_e_commerce.dto.CursorPage;
 import com.tanmay.secure_e_commerce.dto.OrderDTO;
 import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.intake.OrderIntake;
+import com.tanmay.secure_e_commerce.security.CurrentUser;
 import com.tanmay.secure_e_commerce.service.OrderService;
+import com.tanmay.secure_e_commerce.stream.OrderStreamHub;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
@@ -19,24 +26,67 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderIntake orderIntake;
+
+    @Autowired
+    private OrderStreamHub orderStreamHub;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    // A retry with the same Idempotency-Key gets the first response back instead of a second order
     @PostMapping
-    public ResponseEntity<OrderDTO> placeOrder(@Valid @RequestBody OrderDTO orderDTO) {
+    public ResponseEntity<OrderDTO> placeOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody OrderDTO orderDTO) {
+        if (idempotencyKey == null) {
+            return submitOrder(orderDTO);
+        }
+        List<List<Object>> fingerprint = orderDTO.getOrderItems()
+                .stream()
+                .map(item -> List.<Object>of(item.getProductId(), item.getQuantity()))
+                .toList();
+        return idempotencyStore.execute(currentUser.getId(), idempotencyKey, fingerprint, () -> submitOrder(orderDTO));
+    }
+
+    // With async intake the order is only queued: 202 with its id, then poll GET /api/orders/{id}
+    private ResponseEntity<OrderDTO> submitOrder(OrderDTO orderDTO) {
+        if (orderIntake.isEnabled()) {
+            OrderDTO queued = orderIntake.submit(orderDTO);
+            return ResponseEntity.accepted().location(URI.create("/api/orders/" + queued.getId())).body(queued);
+        }
         OrderDTO created = orderService.placeOrder(orderDTO);
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
     @GetMapping("/my-orders")
-    public ResponseEntity<List<OrderDTO>> getMyOrders() {
-        List<OrderDTO> orders = orderService.getMyOrders();
+    public ResponseEntity<CursorPage<OrderDTO>> getMyOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<OrderDTO> orders = orderService.getMyOrders(cursor, size, includeTotal);
         return ResponseEntity.ok(orders);
     }
 
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.getAllOrders();
+    public ResponseEntity<CursorPage<OrderDTO>> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<OrderDTO> orders = orderService.getAllOrders(cursor, size, includeTotal);
         return ResponseEntity.ok(orders);
     }
 
+    // Server-sent events: admins get every order's changes, customers their own orders'
+    @GetMapping("/stream")
+    public SseEmitter streamOrders() {
+        return orderStreamHub.subscribe(currentUser.get());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
         OrderDTO order = orderService.getOrderById(id);
@@ -1,13 +1,25 @@
 package com.tanmay.secure_e_commerce.controller;
 
+import com.tanmay.secure_e_commerce.cache.CatalogVersion;
+import com.tanmay.secure_e_commerce.dto.CursorPage;
+import com.tanmay.secure_e_commerce.dto.FacetCounts;
 import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductSearchResult;
+import com.tanmay.secure_e_commerce.dto.ProductSuggestion;
+import com.tanmay.secure_e_commerce.inventory.FlashSaleInventory;
+import com.tanmay.secure_e_commerce.search.FacetFilter;
 import com.tanmay.secure_e_commerce.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -17,6 +29,12 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private FlashSaleInventory flashSaleInventory;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     @PostMapping
     public ResponseEntity<ProductDTO> createProduct(@Valid @RequestBody ProductDTO productDTO) {
         ProductDTO created = productService.createProduct(productDTO);
@@ -37,16 +55,82 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    @PutMapping("/{id}/flash-sale")
+    public ResponseEntity<Void> startFlashSale(@PathVariable Long id) {
+        flashSaleInventory.enable(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/flash-sale")
+    public ResponseEntity<Void> endFlashSale(@PathVariable Long id) {
+        flashSaleInventory.disable(id);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        List<ProductDTO> products = productService.getAllProducts();
+    public ResponseEntity<CursorPage<ProductDTO>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String priceBand,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            WebRequest request) {
+        FacetFilter filter = new FacetFilter(categoryId, priceBand, inStock);
+        // Filtered pages come from the facet index, which trails the commit, so only plain pages are tagged
+        if (filter.isEmpty()) {
+            if (request.checkNotModified(catalogVersion.productsTag(), catalogVersion.productsModified().toEpochMilli())) {
+                return null;
+            }
+            CursorPage<ProductDTO> products = productService.getProducts(cursor, size, includeTotal, filter);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
+        }
+        CursorPage<ProductDTO> products = productService.getProducts(cursor, size, includeTotal, filter);
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<FacetCounts> getFacets(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String priceBand,
+            @RequestParam(defaultValue = "false") boolean inStock) {
+        FacetCounts facets = productService.getFacets(new FacetFilter(categoryId, priceBand, inStock));
+        return ResponseEntity.ok(facets);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResult> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        ProductSearchResult result = productService.searchProducts(q, categoryId, minPrice, maxPrice, inStock, page, size);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestion> suggestions = productService.suggestProducts(q, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    // Tagged from the product's own updated-at, so this is checked after the (usually cached) read
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest request) {
         ProductDTO product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        Instant updatedAt = product.getUpdatedAt() != null ? product.getUpdatedAt() : Instant.EPOCH;
+        Instant categoriesModified = catalogVersion.categoriesModified();
+        String etag = id + "-" + ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt) + "-" + catalogVersion.categoriesVersion();
+        Instant lastModified = updatedAt.isAfter(categoriesModified) ? updatedAt : categoriesModified;
+        if (request.checkNotModified(etag, lastModified.toEpochMilli())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(product);
     }
 
     @GetMapping("/category/{categoryId}")
@@ -6,16 +6,18 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Data
-@ToString(exclude = "token")
+@ToString(exclude = {"token", "refreshToken"})
 @NoArgsConstructor
 public class AuthResponse {
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
     private String username;
     private String role;
 
-    public AuthResponse(String token, String username, String role) {
+    public AuthResponse(String token, String refreshToken, String username, String role) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.username = username;
         this.role = role;
     }
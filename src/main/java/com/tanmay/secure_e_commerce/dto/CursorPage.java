@@ -0,0 +1,53 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private Long totalCount;
+
+    // rows holds up to size + 1 entries ordered by id; the extra one only signals a next page
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, Long> idOf,
+                                          Function<E, T> mapper, Long totalCount) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encodeCursor(idOf.apply(page.get(page.size() - 1))) : null;
+
+        List<T> items = page.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return new CursorPage<>(items, nextCursor, totalCount);
+    }
+
+    public <R> CursorPage<R> withItems(List<R> items) {
+        return new CursorPage<>(items, nextCursor, totalCount);
+    }
+
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCounts {
+    private long total;
+    private List<FacetValue> categories;
+    private List<FacetValue> priceBands;
+    private long inStock;
+}
@@ -0,0 +1,14 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValue {
+    private String value;
+    private String label;
+    private long count;
+}
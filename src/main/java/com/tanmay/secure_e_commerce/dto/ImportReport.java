@@ -0,0 +1,28 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReport {
+    private long total;
+    private long created;
+    private long updated;
+    private long unchanged;
+    private long failed;
+    private long durationMillis;
+    private List<ImportRowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    // Counts every failure but keeps at most maxErrors details, so a bad file cannot exhaust memory
+    public void reject(long line, String sku, String message, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportRowError(line, sku, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.tanmay.secure_e_commerce.dto;
+
+public record ImportRowError(long line, String sku, String message) {
+}
@@ -0,0 +1,10 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+
+import java.math.BigDecimal;
+
+// One order line joined to its order header; rows arrive ordered by order id, then line id
+public record OrderExportRow(Long orderId, Long userId, String username, OrderStatus status, BigDecimal totalAmount,
+                             Long itemId, Long productId, String productName, Integer quantity, BigDecimal price) {
+}
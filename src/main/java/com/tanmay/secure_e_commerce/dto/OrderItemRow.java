@@ -0,0 +1,7 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import java.math.BigDecimal;
+
+// Flat order line read by projection, joined to the product name in the same row
+public record OrderItemRow(Long orderId, Long id, Long productId, String productName, Integer quantity, BigDecimal price) {
+}
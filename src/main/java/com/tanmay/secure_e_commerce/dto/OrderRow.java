@@ -0,0 +1,9 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+
+import java.math.BigDecimal;
+
+// Flat order header read by projection, joined to the owner's username in the same row
+public record OrderRow(Long id, Long userId, String username, BigDecimal totalAmount, OrderStatus status) {
+}
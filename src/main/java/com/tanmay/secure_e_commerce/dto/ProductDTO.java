@@ -3,11 +3,13 @@ package com.tanmay.secure_e_commerce.dto;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
@@ -16,6 +18,9 @@ public class ProductDTO {
 
     private Long id;
 
+    @Size(max = 64, message = "SKU must be at most 64 characters")
+    private String sku;
+
     @NotBlank(message = "Product name required")
     private String name;
 
@@ -34,4 +39,9 @@ public class ProductDTO {
     private Long categoryId;
 
     private String categoryName;
+
+    private Instant updatedAt;
+
+    // Optional on update: when sent, the update is rejected with 409 if the product changed since it was read
+    private Long version;
 }
@@ -0,0 +1,8 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import java.math.BigDecimal;
+
+// One product as it arrives in a bulk import; the category is referenced by name
+public record ProductImportRow(String sku, String name, String description, BigDecimal price, Integer stock,
+                               String category) {
+}
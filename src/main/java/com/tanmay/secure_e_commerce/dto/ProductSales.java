@@ -0,0 +1,5 @@
+package com.tanmay.secure_e_commerce.dto;
+
+// Units sold of one product over all orders
+public record ProductSales(Long productId, Long quantity) {
+}
@@ -0,0 +1,15 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResult {
+    private List<ProductDTO> items;
+    private long total;
+}
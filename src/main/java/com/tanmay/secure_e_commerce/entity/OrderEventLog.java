@@ -0,0 +1,40 @@
+package com.tanmay.secure_e_commerce.entity;
+
+import com.tanmay.secure_e_commerce.enums.OrderEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+// A relayed order event kept for a short while, so every instance can push it to its own streams
+@Entity
+@Table(name = "order_event_log", indexes = @Index(name = "idx_order_event_log_logged_at", columnList = "logged_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderEventLog {
+    // The outbox event id
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "order_version", nullable = false)
+    private Long orderVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OrderEventType type;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "logged_at", nullable = false)
+    private Instant loggedAt;
+}
@@ -0,0 +1,43 @@
+package com.tanmay.secure_e_commerce.entity;
+
+import com.tanmay.secure_e_commerce.enums.OrderEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+// Order lifecycle event written with the change it describes and removed once relayed
+@Entity
+@Table(name = "outbox_events")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+    // Relayed in id order, so ids must follow commit order across instances: no pooled blocks
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // The order's version after the change, so consumers can order and de-duplicate per order
+    @Column(name = "order_version", nullable = false)
+    private Long orderVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OrderEventType type;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+}
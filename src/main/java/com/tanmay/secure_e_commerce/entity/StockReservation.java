@@ -0,0 +1,25 @@
+package com.tanmay.secure_e_commerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Stock taken from a flash-sale counter that has not been applied to products.stock yet
+@Entity
+@Table(name = "stock_reservations", indexes = @Index(name = "idx_stock_reservations_product", columnList = "product_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservations_seq")
+    @SequenceGenerator(name = "stock_reservations_seq", sequenceName = "stock_reservations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -0,0 +1,7 @@
+package com.tanmay.secure_e_commerce.enums;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_REJECTED,
+    ORDER_STATUS_CHANGED
+}
@@ -1,7 +1,11 @@
 package com.tanmay.secure_e_commerce.enums;
 
 public enum OrderStatus {
+    // Queued by the async intake, not yet in the database
+    PENDING,
     CREATED,
     CONFIRMED,
-    CANCELLED
+    CANCELLED,
+    // Taken by the async intake but could not be filled; no stock was taken
+    REJECTED
 }
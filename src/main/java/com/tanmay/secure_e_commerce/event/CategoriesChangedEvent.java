@@ -0,0 +1,8 @@
+package com.tanmay.secure_e_commerce.event;
+
+/**
+ * Published inside the transaction that created, updated or deleted a category. Product
+ * listings carry the category name, so listeners treat it as a change to every product too.
+ */
+public record CategoriesChangedEvent(Long categoryId) {
+}
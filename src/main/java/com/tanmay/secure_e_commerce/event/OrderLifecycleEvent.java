@@ -0,0 +1,14 @@
+package com.tanmay.secure_e_commerce.event;
+
+import com.tanmay.secure_e_commerce.enums.OrderEventType;
+
+import java.time.Instant;
+
+/**
+ * An order lifecycle event as relayed from the outbox, after the transaction that wrote it
+ * committed. Delivery is at least once: {@code eventId} is unique, and {@code orderVersion}
+ * increases with every event of the same order.
+ */
+public record OrderLifecycleEvent(long eventId, long orderId, long orderVersion, OrderEventType type,
+                                  String payload, Instant occurredAt) {
+}
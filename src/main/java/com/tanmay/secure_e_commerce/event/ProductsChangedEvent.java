@@ -0,0 +1,14 @@
+package com.tanmay.secure_e_commerce.event;
+
+import java.util.Set;
+
+/**
+ * Published inside the transaction that created, updated, deleted or changed the stock of
+ * these products. Listeners that keep derived copies of the catalog re-read them after commit.
+ */
+public record ProductsChangedEvent(Set<Long> productIds) {
+
+    public static ProductsChangedEvent of(Long productId) {
+        return new ProductsChangedEvent(Set.of(productId));
+    }
+}
@@ -0,0 +1,9 @@
+package com.tanmay.secure_e_commerce.event;
+
+import java.util.Map;
+
+/**
+ * Published inside the transaction that placed an order, with the units bought per product id.
+ */
+public record ProductsSoldEvent(Map<Long, Integer> quantities) {
+}
@@ -0,0 +1,7 @@
+package com.tanmay.secure_e_commerce.exception;
+
+public class ConflictException extends RuntimeException{
+    public ConflictException(String message) {
+        super(message);
+    }
+}
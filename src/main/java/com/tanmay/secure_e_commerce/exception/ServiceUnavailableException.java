@@ -0,0 +1,7 @@
+package com.tanmay.secure_e_commerce.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
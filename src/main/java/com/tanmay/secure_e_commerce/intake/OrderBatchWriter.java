@@ -0,0 +1,232 @@
+package com.tanmay.secure_e_commerce.intake;
+
+import com.tanmay.secure_e_commerce.entity.Order;
+import com.tanmay.secure_e_commerce.entity.OrderItem;
+import com.tanmay.secure_e_commerce.entity.OutboxEvent;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import com.tanmay.secure_e_commerce.event.ProductsSoldEvent;
+import com.tanmay.secure_e_commerce.inventory.FlashSaleInventory;
+import com.tanmay.secure_e_commerce.outbox.OrderOutbox;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit for queued orders: one transaction locks every product the batch touches, checks
+ * each order against the running stock in memory, then writes all stock changes, orders and
+ * lines as three JDBC batches, plus their outbox events. An order that cannot be filled is stored as {@code REJECTED}
+ * without touching stock, so the others in the batch still go through.
+ */
+@Component
+public class OrderBatchWriter {
+
+    // Rows are locked, so the condition only guards against a flash sale that started mid-batch
+    private static final String DECREMENT_STOCK =
+            "update products set stock = stock - ?, updated_at = ?, version = version + 1 where id = ? and stock >= ? and flash_sale = false";
+
+    private static final String INSERT_ORDER =
+            "insert into orders (id, user_id, total_amount, status, version) values (?, ?, ?, ?, 0)";
+
+    private static final String INSERT_ITEM =
+            "insert into order_items (id, order_id, product_id, quantity, price) values (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private FlashSaleInventory flashSaleInventory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OrderOutbox orderOutbox;
+
+    private SessionFactoryImplementor sessionFactory;
+    private BeforeExecutionGenerator orderIds;
+    private BeforeExecutionGenerator itemIds;
+
+    @PostConstruct
+    void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        orderIds = generator(Order.class);
+        itemIds = generator(OrderItem.class);
+    }
+
+    private BeforeExecutionGenerator generator(Class<?> entity) {
+        return (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel().getEntityDescriptor(entity).getGenerator();
+    }
+
+    // Same sequences and pooled blocks as the entity inserts, so the two paths never collide
+    public long nextOrderId() {
+        return nextIds(orderIds, 1)[0];
+    }
+
+    private long[] nextIds(BeforeExecutionGenerator generator, int count) {
+        long[] ids = new long[count];
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = ((Number) generator.generate((SharedSessionContractImplementor) session, null, null, EventType.INSERT)).longValue();
+            }
+        }
+        return ids;
+    }
+
+    public record BatchResult(List<PendingOrder> created, List<PendingOrder> rejected, List<PendingOrder> deferred) {
+    }
+
+    /**
+     * Writes the batch in the caller's transaction and also returns the orders it left out: orders
+     * with flash-sale lines are only written alone, because a counter granted to one line cannot
+     * be handed back before the transaction ends if a later line fails. Alone, an order whose
+     * flash-sale line cannot be filled throws and rolls back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BatchResult write(List<PendingOrder> orders) {
+        Set<Long> productIds = new HashSet<>();
+        orders.forEach(order -> productIds.addAll(order.quantities().keySet()));
+        Map<Long, Product> products = productRepository.findAllByIdInForUpdate(productIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Integer> remaining = new HashMap<>();
+        products.values().forEach(product -> remaining.put(product.getId(), product.getStock()));
+
+        List<PendingOrder> deferred = new ArrayList<>();
+        List<PendingOrder> accepted = new ArrayList<>();
+        List<PendingOrder> rejected = new ArrayList<>();
+        List<Object[]> orderRows = new ArrayList<>();
+        List<OutboxEvent> events = new ArrayList<>();
+        SortedMap<Long, Integer> decrements = new TreeMap<>();
+        Map<Long, Integer> sold = new HashMap<>();
+
+        for (PendingOrder order : orders) {
+            boolean flashSale = false;
+            boolean fillable = true;
+            for (Map.Entry<Long, Integer> line : order.quantities().entrySet()) {
+                Product product = products.get(line.getKey());
+                if (product == null) {
+                    fillable = false;
+                } else if (product.isFlashSale() || flashSaleInventory.isActive(product.getId())) {
+                    flashSale = true;
+                } else if (remaining.get(product.getId()) < line.getValue()) {
+                    fillable = false;
+                }
+            }
+
+            if (fillable && flashSale) {
+                if (orders.size() > 1) {
+                    deferred.add(order);
+                    continue;
+                }
+                order.quantities().forEach((productId, quantity) -> {
+                    Product product = products.get(productId);
+                    if ((product.isFlashSale() || flashSaleInventory.isActive(productId))
+                            && !flashSaleInventory.reserve(product, quantity)) {
+                        throw new IllegalArgumentException("Insufficient stock for : " + product.getName());
+                    }
+                });
+            }
+            if (!fillable) {
+                orderRows.add(new Object[]{order.id(), order.userId(), BigDecimal.ZERO, OrderStatus.REJECTED.name()});
+                events.add(rejectedEvent(order));
+                rejected.add(order);
+                continue;
+            }
+
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map.Entry<Long, Integer> line : order.quantities().entrySet()) {
+                Product product = products.get(line.getKey());
+                if (!product.isFlashSale() && !flashSaleInventory.isActive(product.getId())) {
+                    remaining.merge(product.getId(), -line.getValue(), Integer::sum);
+                    decrements.merge(product.getId(), line.getValue(), Integer::sum);
+                }
+                sold.merge(product.getId(), line.getValue(), Integer::sum);
+                total = total.add(product.getPrice().multiply(BigDecimal.valueOf(line.getValue())));
+            }
+            orderRows.add(new Object[]{order.id(), order.userId(), total, OrderStatus.CREATED.name()});
+            accepted.add(order);
+        }
+
+        if (!decrements.isEmpty()) {
+            Timestamp now = Timestamp.from(Instant.now());
+            List<Object[]> rows = new ArrayList<>();
+            decrements.forEach((productId, quantity) -> rows.add(new Object[]{quantity, now, productId, quantity}));
+            for (int updated : jdbcTemplate.batchUpdate(DECREMENT_STOCK, rows)) {
+                if (updated == 0) {
+                    throw new IllegalStateException("Stock changed while the order batch held its lock");
+                }
+            }
+        }
+
+        List<Object[]> itemRows = new ArrayList<>();
+        long[] ids = nextIds(itemIds, accepted.stream().mapToInt(order -> order.items().size()).sum());
+        int next = 0;
+        for (PendingOrder order : accepted) {
+            List<OrderOutbox.Line> lines = new ArrayList<>();
+            BigDecimal total = BigDecimal.ZERO;
+            for (var item : order.items()) {
+                Product product = products.get(item.getProductId());
+                itemRows.add(new Object[]{ids[next++], order.id(), product.getId(), item.getQuantity(), product.getPrice()});
+                lines.add(new OrderOutbox.Line(product.getId(), item.getQuantity(), product.getPrice()));
+                total = total.add(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+            events.add(orderOutbox.created(order.id(), 0L, order.userId(), OrderStatus.CREATED, total, lines));
+        }
+
+        if (!orderRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ORDER, orderRows);
+        }
+        if (!itemRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ITEM, itemRows);
+        }
+        orderOutbox.append(events);
+        if (!sold.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(Set.copyOf(sold.keySet())));
+            eventPublisher.publishEvent(new ProductsSoldEvent(sold));
+        }
+        return new BatchResult(accepted, rejected, deferred);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reject(PendingOrder order) {
+        jdbcTemplate.update(INSERT_ORDER, order.id(), order.userId(), BigDecimal.ZERO, OrderStatus.REJECTED.name());
+        orderOutbox.append(List.of(rejectedEvent(order)));
+    }
+
+    private OutboxEvent rejectedEvent(PendingOrder order) {
+        return orderOutbox.created(order.id(), 0L, order.userId(), OrderStatus.REJECTED, BigDecimal.ZERO, List.of());
+    }
+}
@@ -0,0 +1,343 @@
+package com.tanmay.secure_e_commerce.intake;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.exception.ConflictException;
+import com.tanmay.secure_e_commerce.exception.ServiceUnavailableException;
+import com.tanmay.secure_e_commerce.security.AuthenticatedUser;
+import com.tanmay.secure_e_commerce.security.CurrentUser;
+import com.tanmay.secure_e_commerce.service.ProductService;
+import com.tanmay.secure_e_commerce.service.TransactionRetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous order intake, on when {@code orders.intake.async=true}. {@code POST /api/orders}
+ * validates the order, gives it an id and queues it; workers drain the queue in batches of up to
+ * {@code orders.intake.batch-size}, waiting at most {@code linger-ms} for a batch to fill, and
+ * commit each batch through {@link OrderBatchWriter}. An order that cannot be filled is stored as
+ * REJECTED; one whose write failed for a transient reason (database unreachable, lost races) stays
+ * pending and is queued again after a backoff. A full queue sheds new orders with 503. On
+ * a clean shutdown the intake stops after the web server, so no new orders arrive, and drains
+ * the queue before the database goes away.
+ */
+@Component
+public class OrderIntake implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntake.class);
+
+    @Value("${orders.intake.async:false}")
+    private boolean enabled;
+
+    @Value("${orders.intake.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${orders.intake.workers:2}")
+    private int workers;
+
+    @Value("${orders.intake.batch-size:50}")
+    private int batchSize;
+
+    @Value("${orders.intake.linger-ms:2}")
+    private long lingerMs;
+
+    @Value("${orders.intake.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${orders.intake.drain-timeout-ms:30000}")
+    private long drainTimeoutMs;
+
+    @Value("${orders.intake.retry.initial-backoff-ms:100}")
+    private long retryInitialBackoffMs;
+
+    @Value("${orders.intake.retry.max-backoff-ms:5000}")
+    private long retryMaxBackoffMs;
+
+    @Autowired
+    private OrderBatchWriter batchWriter;
+
+    @Autowired
+    private TransactionRetry transactionRetry;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingOrder> queue;
+    // Queued or in a batch being written; an order leaves only once its outcome is committed
+    private final Map<Long, PendingOrder> pending = new ConcurrentHashMap<>();
+    private final List<Thread> threads = new ArrayList<>();
+    // Orders waiting out a backoff before going back on the queue
+    private final AtomicInteger retrying = new AtomicInteger();
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    private Counter accepted;
+    private Counter shed;
+    private Counter retried;
+    private DistributionSummary batchSizes;
+    private Timer commitTime;
+    private Timer latency;
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gauge("orders.intake.queue.size", queue, BlockingQueue::size);
+        accepted = meterRegistry.counter("orders.intake.accepted");
+        shed = meterRegistry.counter("orders.intake.shed");
+        retried = meterRegistry.counter("orders.intake.retried");
+        batchSizes = DistributionSummary.builder("orders.intake.batch.size").register(meterRegistry);
+        commitTime = Timer.builder("orders.intake.batch.commit").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        latency = Timer.builder("orders.intake.latency").publishPercentiles(0.5, 0.99).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public OrderDTO submit(OrderDTO orderDTO) {
+        if (!accepting) {
+            throw new ServiceUnavailableException("Order intake is not accepting orders, please retry");
+        }
+        AuthenticatedUser user = currentUser.get();
+
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        orderDTO.getOrderItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        // Unknown products fail now with 404, from the catalog cache when it has them
+        quantities.keySet().forEach(productService::getProductById);
+
+        List<OrderItemDTO> items = orderDTO.getOrderItems().stream()
+                .map(item -> new OrderItemDTO(null, item.getProductId(), null, item.getQuantity(), null))
+                .collect(Collectors.toList());
+        PendingOrder order = new PendingOrder(batchWriter.nextOrderId(), user.getId(), user.getUsername(),
+                items, quantities, System.nanoTime(), 0);
+
+        pending.put(order.id(), order);
+        boolean queued;
+        try {
+            queued = queue.offer(order, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            pending.remove(order.id());
+            shed.increment();
+            throw new ServiceUnavailableException("Order queue is full, please retry");
+        }
+        accepted.increment();
+        return toDTO(order);
+    }
+
+    public Optional<OrderDTO> findPending(Long id) {
+        return Optional.ofNullable(pending.get(id)).map(this::toDTO);
+    }
+
+    private OrderDTO toDTO(PendingOrder order) {
+        return new OrderDTO(order.id(), order.userId(), order.username(), order.items(), null, OrderStatus.PENDING);
+    }
+
+    private void drain() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || retrying.get() > 0) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) {
+                        break;
+                    }
+                    PendingOrder next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Stopping: finish what is queued
+            }
+            if (!batch.isEmpty()) {
+                process(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        long started = System.nanoTime();
+        OrderBatchWriter.BatchResult result;
+        try {
+            result = transactionRetry.execute("orderIntake", () -> batchWriter.write(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                if (isTransient(e)) {
+                    retryLater(batch.get(0), e);
+                } else {
+                    reject(batch.get(0), e);
+                }
+                return;
+            }
+            log.warn("Order batch of {} failed, writing its orders one by one: {}", batch.size(), e.getMessage());
+            result = new OrderBatchWriter.BatchResult(List.of(), List.of(), List.copyOf(batch));
+        }
+        commitTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        result.created().forEach(order -> complete(order, "created"));
+        result.rejected().forEach(order -> complete(order, "rejected"));
+        for (PendingOrder order : result.deferred()) {
+            process(List.of(order));
+        }
+    }
+
+    private void reject(PendingOrder order, RuntimeException cause) {
+        if (!(cause instanceof IllegalArgumentException)) {
+            log.error("Order {} could not be written", order.id(), cause);
+        }
+        try {
+            transactionRetry.execute("orderIntake", () -> {
+                batchWriter.reject(order);
+                return null;
+            });
+            complete(order, "rejected");
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                retryLater(order, e);
+                return;
+            }
+            log.error("Order {} lost: could not record its rejection", order.id(), e);
+            complete(order, "failed");
+        }
+    }
+
+    // Failures that say nothing about the order itself; the same write can succeed later
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException
+                || e instanceof ConflictException;
+    }
+
+    // The order stays in pending, so polling still answers PENDING while it waits
+    private void retryLater(PendingOrder order, RuntimeException cause) {
+        PendingOrder next = order.retried();
+        long ceiling = Math.min(retryMaxBackoffMs, retryInitialBackoffMs << Math.min(next.attempts() - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        log.warn("Order {} write failed (attempt {}), retrying in {} ms: {}", order.id(), next.attempts(), delay, cause.getMessage());
+        retried.increment();
+        retrying.incrementAndGet();
+        try {
+            retryScheduler.schedule(() -> {
+                try {
+                    queue.put(next);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    retrying.decrementAndGet();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down past the drain timeout: the order is reported as not written
+            retrying.decrementAndGet();
+        }
+    }
+
+    private void complete(PendingOrder order, String outcome) {
+        pending.remove(order.id());
+        latency.record(System.nanoTime() - order.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        meterRegistry.counter("orders.intake.completed", "outcome", outcome).increment();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("order-intake-retry").daemon().factory());
+        for (int i = 0; i < workers; i++) {
+            Thread worker = Thread.ofPlatform().name("order-intake-" + i).start(this::drain);
+            threads.add(worker);
+        }
+        accepting = true;
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        for (Thread worker : threads) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+            retrying.set(0);
+        }
+        if (!pending.isEmpty()) {
+            log.error("Order intake stopped with {} orders not written: {}", pending.size(), pending.keySet());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Below the web server's phases: stopped after it stops taking requests, before the data source closes
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tanmay.secure_e_commerce.intake;
+
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * An accepted order waiting in the intake queue. The id is allocated up front so the client can
+ * poll for it; {@code quantities} merges repeated lines per product. {@code attempts} counts the
+ * writes that failed for a transient reason.
+ */
+public record PendingOrder(long id, Long userId, String username, List<OrderItemDTO> items,
+                           SortedMap<Long, Integer> quantities, long enqueuedNanos, int attempts) {
+
+    public PendingOrder retried() {
+        return new PendingOrder(id, userId, username, items, quantities, enqueuedNanos, attempts + 1);
+    }
+}
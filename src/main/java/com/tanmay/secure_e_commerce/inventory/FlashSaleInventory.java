@@ -0,0 +1,242 @@
+package com.tanmay.secure_e_commerce.inventory;
+
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.entity.StockReservation;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import com.tanmay.secure_e_commerce.exception.ConflictException;
+import com.tanmay.secure_e_commerce.exception.ResourceNotFoundException;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.repository.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flash-sale mode: checkouts for flagged products take stock from an in-memory
+ * {@link StripedStockCounter} instead of updating the hot {@code products} row. Each grant is
+ * journaled to {@code stock_reservations} in the order's transaction, and a scheduled write-back
+ * applies the journal to {@code products.stock} in batches. On startup the counters are rebuilt
+ * as stock minus the journal that has not been written back yet.
+ * <p>
+ * The counters live in this JVM, so a product must only be on flash sale while one instance
+ * takes its orders.
+ */
+@Service
+public class FlashSaleInventory {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${flash-sale.stripes:0}")
+    private int stripes;
+
+    @Value("${flash-sale.write-back-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${flash-sale.close-timeout-ms:5000}")
+    private long closeTimeoutMillis;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+
+    // Write-back reads journal rows and then applies them; two of those at once would apply a row twice
+    private final ReentrantLock writeBackLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        for (Object[] row : productRepository.findFlashSaleAvailableStock()) {
+            counters.put((Long) row[0], newCounter(((Number) row[1]).longValue()));
+        }
+    }
+
+    /**
+     * Reserves stock for a flash-sale product in the caller's transaction. Returns {@code false}
+     * when the product is not on flash sale, so the caller falls back to the database row. While
+     * the sale is being ended it waits for the outcome, so a checkout never reads the row before
+     * the journal has been applied to it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean reserve(Product product, int quantity) {
+        StripedStockCounter counter = openCounter(product.getId());
+        if (counter == null) {
+            return false;
+        }
+        if (!counter.tryAcquire(quantity)) {
+            // Closed between the check and the acquire: decide again once the sale has ended or reopened
+            if (counter.isClosed()) {
+                return reserve(product, quantity);
+            }
+            throw new IllegalArgumentException("Insufficient stock for : " + product.getName());
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                counter.complete(quantity, status == STATUS_COMMITTED);
+            }
+        });
+        reservationRepository.save(new StockReservation(null, product.getId(), quantity));
+        return true;
+    }
+
+    public boolean isActive(Long productId) {
+        StripedStockCounter counter = counters.get(productId);
+        return counter != null && !counter.isClosed();
+    }
+
+    public Long available(Long productId) {
+        StripedStockCounter counter = counters.get(productId);
+        return counter == null ? null : counter.available();
+    }
+
+    @Transactional
+    @PreAuthorize("hasRole('ADMIN')")
+    public void enable(Long productId) {
+        // The update takes the row lock: checkouts already decrementing it commit first,
+        // later ones find flash_sale set and come to the counter instead
+        if (productRepository.setFlashSale(productId, true) == 0) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+        if (counters.containsKey(productId)) {
+            return;
+        }
+
+        long available = productRepository.findStockById(productId).orElseThrow()
+                - reservationRepository.sumQuantityByProductId(productId);
+        StripedStockCounter counter = newCounter(available);
+        counters.put(productId, counter);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    counters.remove(productId, counter);
+                }
+            }
+        });
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public void disable(Long productId) {
+        writeBackLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // The row lock comes before the counter closes: checkouts turned away by the closing
+                // counter fall back to the row and wait there until the journal has been applied
+                if (productRepository.setFlashSale(productId, false) == 0) {
+                    throw new ResourceNotFoundException("Product not found with id: " + productId);
+                }
+                StripedStockCounter counter = counters.get(productId);
+                if (counter != null) {
+                    if (!close(counter)) {
+                        throw new ConflictException("Flash sale for product " + productId + " still has orders in flight, try again");
+                    }
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status == STATUS_COMMITTED) {
+                                counters.remove(productId, counter);
+                            } else {
+                                counter.reopen();
+                            }
+                        }
+                    });
+                }
+                writeBack(reservationRepository.findByProductIdOrderByIdAsc(productId));
+            });
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${flash-sale.write-back-interval-ms:1000}")
+    public void writeBack() {
+        writeBackLock.lock();
+        try {
+            int written;
+            do {
+                written = transactionTemplate.execute(status ->
+                        writeBack(reservationRepository.findAllByOrderByIdAsc(Limit.of(batchSize))));
+            } while (written == batchSize);
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    private int writeBack(List<StockReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return 0;
+        }
+
+        // One update per product, in id order like checkouts
+        SortedMap<Long, Long> totals = new TreeMap<>();
+        reservations.forEach(reservation -> totals.merge(reservation.getProductId(), reservation.getQuantity().longValue(), Long::sum));
+        Instant now = Instant.now();
+        totals.forEach((productId, quantity) -> productRepository.applyReservedStock(productId, quantity, now));
+        reservationRepository.deleteAllByIdInBatch(reservations.stream().map(StockReservation::getId).toList());
+
+        eventPublisher.publishEvent(new ProductsChangedEvent(Set.copyOf(totals.keySet())));
+        return reservations.size();
+    }
+
+    // The product's counter, once any close in progress has ended the sale (null) or reopened it
+    private StripedStockCounter openCounter(Long productId) {
+        long deadline = System.currentTimeMillis() + closeTimeoutMillis * 2;
+        StripedStockCounter counter = counters.get(productId);
+        while (counter != null && counter.isClosed()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new ConflictException("Flash sale for product " + productId + " is ending, please retry");
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConflictException("Flash sale for product " + productId + " is ending, please retry");
+            }
+            counter = counters.get(productId);
+        }
+        return counter;
+    }
+
+    private boolean close(StripedStockCounter counter) {
+        try {
+            return counter.close(closeTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            counter.reopen();
+            return false;
+        }
+    }
+
+    private StripedStockCounter newCounter(long available) {
+        int stripeCount = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 2;
+        return new StripedStockCounter(Math.max(available, 0), stripeCount);
+    }
+}
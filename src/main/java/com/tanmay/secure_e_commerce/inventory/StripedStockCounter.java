@@ -0,0 +1,112 @@
+package com.tanmay.secure_e_commerce.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available stock of one product split across CAS stripes, so concurrent buyers mostly update
+ * different cache lines. A stripe never goes below zero, so the sum of all stripes never does
+ * either: an acquire either takes the full quantity or gives back whatever it gathered.
+ */
+class StripedStockCounter {
+
+    // 16 longs = 128 bytes between stripes, enough to keep neighbours off each other's cache line
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean closed;
+
+    StripedStockCounter(long available, int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, available / stripes + (i < available % stripes ? 1 : 0));
+        }
+    }
+
+    /**
+     * Takes {@code quantity} units, or nothing. A successful acquire stays in flight until
+     * {@link #complete} is called for it.
+     */
+    boolean tryAcquire(long quantity) {
+        inFlight.incrementAndGet();
+        if (closed) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+
+        int home = ThreadLocalRandom.current().nextInt(stripes);
+        long taken = take(home, quantity);
+        for (int i = 1; i < stripes && taken < quantity; i++) {
+            taken += take((home + i) % stripes, quantity - taken);
+        }
+        if (taken == quantity) {
+            return true;
+        }
+
+        release(taken);
+        inFlight.decrementAndGet();
+        return false;
+    }
+
+    void complete(long quantity, boolean committed) {
+        if (!committed) {
+            release(quantity);
+        }
+        inFlight.decrementAndGet();
+    }
+
+    // Takes up to quantity from one stripe, returns how much it got
+    private long take(int stripe, long quantity) {
+        int index = stripe * PADDING;
+        while (true) {
+            long current = cells.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            long taken = Math.min(current, quantity);
+            if (cells.compareAndSet(index, current, current - taken)) {
+                return taken;
+            }
+        }
+    }
+
+    private void release(long quantity) {
+        if (quantity > 0) {
+            cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+        }
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    // Stops new acquires and waits for the ones in flight to commit or roll back
+    boolean close(long timeoutMillis) throws InterruptedException {
+        closed = true;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (inFlight.get() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                closed = false;
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    void reopen() {
+        closed = false;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+}
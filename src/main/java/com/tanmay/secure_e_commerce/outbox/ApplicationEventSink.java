@@ -0,0 +1,21 @@
+package com.tanmay.secure_e_commerce.outbox;
+
+import com.tanmay.secure_e_commerce.event.OrderLifecycleEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// In-process delivery: any @EventListener for OrderLifecycleEvent receives the relayed events
+@Component
+public class ApplicationEventSink implements OutboxSink {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<OrderLifecycleEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
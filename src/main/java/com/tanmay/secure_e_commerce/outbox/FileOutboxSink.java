@@ -0,0 +1,56 @@
+package com.tanmay.secure_e_commerce.outbox;
+
+import com.tanmay.secure_e_commerce.event.OrderLifecycleEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends relayed events to a local file as JSON lines, synced to disk before the relay removes
+ * them from the outbox. Enabled by setting {@code outbox.file.path}.
+ */
+@Component
+@ConditionalOnProperty("outbox.file.path")
+public class FileOutboxSink implements OutboxSink {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.file.path}")
+    private Path path;
+
+    @Override
+    public void publish(List<OrderLifecycleEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OrderLifecycleEvent event : events) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("eventId", event.eventId());
+            line.put("orderId", event.orderId());
+            line.put("orderVersion", event.orderVersion());
+            line.put("type", event.type());
+            line.put("occurredAt", event.occurredAt());
+            line.put("payload", objectMapper.readTree(event.payload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.tanmay.secure_e_commerce.outbox;
+
+import com.tanmay.secure_e_commerce.event.OrderLifecycleEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Copies relayed events to {@code order_event_log} in the relay's transaction. Whichever instance
+ * relays a batch, the order streams on every instance read it from there.
+ */
+@Component
+public class OrderEventLogSink implements OutboxSink {
+
+    private static final String INSERT_EVENT =
+            "insert into order_event_log (id, order_id, order_version, type, payload, logged_at) values (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void publish(List<OrderLifecycleEvent> events) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events.stream()
+                .map(event -> new Object[]{event.eventId(), event.orderId(), event.orderVersion(), event.type().name(), event.payload(), now})
+                .toList());
+    }
+}
@@ -0,0 +1,68 @@
+package com.tanmay.secure_e_commerce.outbox;
+
+import com.tanmay.secure_e_commerce.entity.Order;
+import com.tanmay.secure_e_commerce.entity.OutboxEvent;
+import com.tanmay.secure_e_commerce.enums.OrderEventType;
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Writes order lifecycle events to {@code outbox_events} in the transaction that changes the
+ * order, so an event exists exactly when its change committed. {@link OutboxRelay} sends them on.
+ */
+@Component
+public class OrderOutbox {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public record Line(Long productId, Integer quantity, BigDecimal price) {
+    }
+
+    record OrderPayload(Long orderId, Long userId, OrderStatus status, BigDecimal totalAmount, List<Line> items) {
+    }
+
+    record StatusPayload(Long orderId, Long userId, OrderStatus previousStatus, OrderStatus status) {
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<OutboxEvent> events) {
+        if (!events.isEmpty()) {
+            outboxEventRepository.saveAll(events);
+        }
+    }
+
+    public OutboxEvent created(Order order) {
+        List<Line> lines = order.getOrderItems()
+                .stream()
+                .map(item -> new Line(item.getProduct().getId(), item.getQuantity(), item.getPrice()))
+                .toList();
+        return created(order.getId(), order.getVersion(), order.getUser().getId(), order.getStatus(), order.getTotalAmount(), lines);
+    }
+
+    public OutboxEvent created(Long orderId, Long version, Long userId, OrderStatus status, BigDecimal totalAmount, List<Line> lines) {
+        OrderEventType type = status == OrderStatus.REJECTED ? OrderEventType.ORDER_REJECTED : OrderEventType.ORDER_CREATED;
+        return event(orderId, version, type, new OrderPayload(orderId, userId, status, totalAmount, lines));
+    }
+
+    public OutboxEvent statusChanged(Order order, OrderStatus previousStatus) {
+        return event(order.getId(), order.getVersion(), OrderEventType.ORDER_STATUS_CHANGED,
+                new StatusPayload(order.getId(), order.getUser().getId(), previousStatus, order.getStatus()));
+    }
+
+    private OutboxEvent event(Long orderId, Long version, OrderEventType type, Object payload) {
+        return new OutboxEvent(null, orderId, version, type, objectMapper.writeValueAsString(payload), Instant.now());
+    }
+}
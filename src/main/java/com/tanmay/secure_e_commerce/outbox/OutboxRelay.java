@@ -0,0 +1,106 @@
+package com.tanmay.secure_e_commerce.outbox;
+
+import com.tanmay.secure_e_commerce.entity.OutboxEvent;
+import com.tanmay.secure_e_commerce.event.OrderLifecycleEvent;
+import com.tanmay.secure_e_commerce.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends outbox events to every {@link OutboxSink} in id order, a batch per transaction, and
+ * deletes them only after all sinks took the batch. A failing sink rolls the batch back and the
+ * next run starts again from its first event, so delivery is at least once and no event overtakes
+ * an earlier one. The batch is read with row locks, which keeps relays on other instances in line.
+ * Published as {@code outbox.relayed}, {@code outbox.relay.failures} and {@code outbox.lag}.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private List<OutboxSink> sinks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    private final ReentrantLock relayLock = new ReentrantLock();
+
+    private Counter relayed;
+    private Counter failures;
+    private Timer lag;
+
+    @PostConstruct
+    void init() {
+        relayed = meterRegistry.counter("outbox.relayed");
+        failures = meterRegistry.counter("outbox.relay.failures");
+        lag = Timer.builder("outbox.lag").publishPercentiles(0.5, 0.99).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        relayLock.lock();
+        try {
+            int sent;
+            do {
+                sent = transactionTemplate.execute(status ->
+                        relay(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(batchSize))));
+            } while (sent == batchSize);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox relay failed, retrying on the next run: {}", e.getMessage());
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    private int relay(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<OrderLifecycleEvent> batch = events.stream()
+                .map(event -> new OrderLifecycleEvent(event.getId(), event.getOrderId(), event.getOrderVersion(),
+                        event.getType(), event.getPayload(), event.getOccurredAt()))
+                .toList();
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.publish(batch);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox sink " + sink.getClass().getSimpleName() + " failed", e);
+            }
+        }
+        outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+
+        Instant now = Instant.now();
+        events.forEach(event -> lag.record(Duration.between(event.getOccurredAt(), now)));
+        relayed.increment(events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,14 @@
+package com.tanmay.secure_e_commerce.outbox;
+
+import com.tanmay.secure_e_commerce.event.OrderLifecycleEvent;
+
+import java.util.List;
+
+/**
+ * A destination for relayed order events. Events arrive in outbox order; a sink that throws gets
+ * the same events again on the next relay run, so sinks must tolerate duplicates.
+ */
+public interface OutboxSink {
+
+    void publish(List<OrderLifecycleEvent> events) throws Exception;
+}
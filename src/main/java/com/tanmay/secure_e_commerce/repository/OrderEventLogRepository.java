@@ -0,0 +1,28 @@
+package com.tanmay.secure_e_commerce.repository;
+
+import com.tanmay.secure_e_commerce.entity.OrderEventLog;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderEventLogRepository extends JpaRepository<OrderEventLog, Long> {
+
+    List<OrderEventLog> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<OrderEventLog> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("select coalesce(max(e.id), 0) from OrderEventLog e")
+    long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("delete from OrderEventLog e where e.loggedAt < :cutoff")
+    int deleteLoggedBefore(@Param("cutoff") Instant cutoff);
+}
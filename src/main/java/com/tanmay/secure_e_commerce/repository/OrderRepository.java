@@ -1,10 +1,51 @@
 package com.tanmay.secure_e_commerce.repository;
 
+import com.tanmay.secure_e_commerce.dto.OrderExportRow;
+import com.tanmay.secure_e_commerce.dto.OrderItemRow;
+import com.tanmay.secure_e_commerce.dto.OrderRow;
+import com.tanmay.secure_e_commerce.dto.ProductSales;
 import com.tanmay.secure_e_commerce.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserId(Long userId);
+
+    @Query("select new com.tanmay.secure_e_commerce.dto.OrderRow(o.id, u.id, u.username, o.totalAmount, o.status) " +
+            "from Order o join o.user u where o.id > :afterId order by o.id")
+    List<OrderRow> findRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.tanmay.secure_e_commerce.dto.OrderRow(o.id, u.id, u.username, o.totalAmount, o.status) " +
+            "from Order o join o.user u where u.id = :userId and o.id > :afterId order by o.id")
+    List<OrderRow> findRowsByUserIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.tanmay.secure_e_commerce.dto.OrderRow(o.id, u.id, u.username, o.totalAmount, o.status) " +
+            "from Order o join o.user u where o.id = :id")
+    Optional<OrderRow> findRowById(@Param("id") Long id);
+
+    // One query for the lines of a whole page of orders, stitched to their headers in memory
+    @Query("select new com.tanmay.secure_e_commerce.dto.OrderItemRow(i.order.id, i.id, p.id, p.name, i.quantity, i.price) " +
+            "from OrderItem i join i.product p where i.order.id in :orderIds order by i.id")
+    List<OrderItemRow> findItemRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    long countByUserId(Long userId);
+
+    @Query("select new com.tanmay.secure_e_commerce.dto.ProductSales(i.product.id, sum(i.quantity)) " +
+            "from OrderItem i group by i.product.id")
+    List<ProductSales> sumQuantityByProduct();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.tanmay.secure_e_commerce.dto.OrderExportRow(o.id, u.id, u.username, o.status, o.totalAmount, " +
+            "i.id, p.id, p.name, i.quantity, i.price) " +
+            "from Order o join o.user u left join o.orderItems i left join i.product p order by o.id, i.id")
+    Stream<OrderExportRow> streamExportRows();
 }
@@ -0,0 +1,16 @@
+package com.tanmay.secure_e_commerce.repository;
+
+import com.tanmay.secure_e_commerce.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Locked, so relays on other instances wait instead of sending the same events out of order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OutboxEvent> findAllByOrderByIdAsc(Limit limit);
+}
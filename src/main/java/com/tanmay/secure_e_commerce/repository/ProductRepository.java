@@ -1,10 +1,71 @@
 package com.tanmay.secure_e_commerce.repository;
 
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
 import com.tanmay.secure_e_commerce.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findByCategoryId(Long categoryId);
+
+    // Listing reads select exactly the ProductDTO columns, so no managed entities or lazy category loads
+
+    // Keyset page: seeks past the last id seen, so every page costs the same as the first
+    @Query("select new com.tanmay.secure_e_commerce.dto.ProductDTO(p.id, p.sku, p.name, p.description, p.price, p.stock, c.id, c.name, p.updatedAt, p.version) " +
+            "from Product p left join p.category c where p.id > :afterId order by p.id")
+    List<ProductDTO> findDTOsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.tanmay.secure_e_commerce.dto.ProductDTO(p.id, p.sku, p.name, p.description, p.price, p.stock, c.id, c.name, p.updatedAt, p.version) " +
+            "from Product p join p.category c where c.id = :categoryId order by p.id")
+    List<ProductDTO> findDTOsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query("select new com.tanmay.secure_e_commerce.dto.ProductDTO(p.id, p.sku, p.name, p.description, p.price, p.stock, c.id, c.name, p.updatedAt, p.version) " +
+            "from Product p left join p.category c where p.id = :id")
+    Optional<ProductDTO> findDTOById(@Param("id") Long id);
+
+    @Query("select new com.tanmay.secure_e_commerce.dto.ProductDTO(p.id, p.sku, p.name, p.description, p.price, p.stock, c.id, c.name, p.updatedAt, p.version) " +
+            "from Product p left join p.category c where p.id in :ids order by p.id")
+    List<ProductDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.tanmay.secure_e_commerce.dto.ProductDTO(p.id, p.sku, p.name, p.description, p.price, p.stock, c.id, c.name, p.updatedAt, p.version) " +
+            "from Product p left join p.category c order by p.id")
+    Stream<ProductDTO> streamAllDTOs();
+
+    List<Product> findBySkuIn(Collection<String> skus);
+
+    // In id order, like the checkout's row updates, so batch writers and checkouts cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Write-back of flash-sale reservations that the counter already granted
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - :quantity, p.updatedAt = :now, p.version = p.version + 1 where p.id = :id")
+    int applyReservedStock(@Param("id") Long id, @Param("quantity") long quantity, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update Product p set p.flashSale = :flashSale, p.version = p.version + 1 where p.id = :id")
+    int setFlashSale(@Param("id") Long id, @Param("flashSale") boolean flashSale);
+
+    @Query("select p.stock from Product p where p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    // One statement, so a concurrent write-back cannot be counted in both terms
+    @Query("select p.id, p.stock - coalesce((select sum(r.quantity) from StockReservation r where r.productId = p.id), 0) " +
+            "from Product p where p.flashSale = true")
+    List<Object[]> findFlashSaleAvailableStock();
 }
@@ -0,0 +1,19 @@
+package com.tanmay.secure_e_commerce.repository;
+
+import com.tanmay.secure_e_commerce.entity.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findAllByOrderByIdAsc(Limit limit);
+
+    List<StockReservation> findByProductIdOrderByIdAsc(Long productId);
+
+    @Query("select coalesce(sum(r.quantity), 0) from StockReservation r where r.productId = :productId")
+    long sumQuantityByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,16 @@
+package com.tanmay.secure_e_commerce.search;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// An in-memory view of the catalog, fed by CatalogIndexRefresher
+public interface CatalogIndex {
+
+    void rebuild(Stream<ProductDTO> products);
+
+    // current holds the changed products that still exist; the others were deleted
+    void apply(Collection<Long> changedIds, Map<Long, ProductDTO> current);
+}
@@ -0,0 +1,87 @@
+package com.tanmay.secure_e_commerce.search;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads every {@link CatalogIndex} at startup and keeps them current. Product ids from
+ * {@link ProductsChangedEvent} are collected after commit and re-read every
+ * {@code catalog.index.refresh-interval-ms}, so a burst of orders on one product costs one query.
+ */
+@Component
+public class CatalogIndexRefresher {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private List<CatalogIndex> indexes;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    // Re-reading and applying is serialized, so the last reader always applies the latest state
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Under the refresh lock, so a refresh that read newer rows cannot be overwritten by this snapshot
+        refreshLock.lock();
+        try {
+            // One pass over the table, shared by every index
+            List<ProductDTO> snapshot;
+            try (Stream<ProductDTO> products = productRepository.streamAllDTOs()) {
+                snapshot = products.toList();
+            }
+            indexes.forEach(index -> index.rebuild(snapshot.stream()));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        pending.addAll(event.productIds());
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.index.refresh-interval-ms:200}")
+    public void refresh() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            List<Long> changed = new ArrayList<>(pending);
+            pending.removeAll(changed);
+            for (int from = 0; from < changed.size(); from += BATCH_SIZE) {
+                List<Long> batch = changed.subList(from, Math.min(from + BATCH_SIZE, changed.size()));
+                Map<Long, ProductDTO> current = productRepository.findDTOsByIdIn(batch)
+                        .stream()
+                        .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+                indexes.forEach(index -> index.apply(batch, current));
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
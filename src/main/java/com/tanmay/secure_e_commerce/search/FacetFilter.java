@@ -0,0 +1,9 @@
+package com.tanmay.secure_e_commerce.search;
+
+// Null or false means "any" for that facet
+public record FacetFilter(Long categoryId, String priceBand, boolean inStock) {
+
+    public boolean isEmpty() {
+        return categoryId == null && priceBand == null && !inStock;
+    }
+}
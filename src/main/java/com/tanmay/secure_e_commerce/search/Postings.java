@@ -0,0 +1,36 @@
+package com.tanmay.secure_e_commerce.search;
+
+import java.util.Arrays;
+
+// Doc ids of one term in ascending order, with the weighted term frequency for each
+final class Postings {
+
+    int[] docs = new int[4];
+    int[] freqs = new int[4];
+    int size;
+
+    void add(int doc, int freq) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            freqs = Arrays.copyOf(freqs, size * 2);
+        }
+        docs[size] = doc;
+        freqs[size] = freq;
+        size++;
+    }
+
+    // First position at or after from whose doc id is >= doc
+    int seek(int from, int doc) {
+        int low = from;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (docs[mid] < doc) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,244 @@
+package com.tanmay.secure_e_commerce.search;
+
+import com.tanmay.secure_e_commerce.dto.FacetCounts;
+import com.tanmay.secure_e_commerce.dto.FacetValue;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Compressed bitmaps of product ids per category, per price band and for {@code stock > 0}. A
+ * filtered listing is the intersection of the selected bitmaps; a facet count is the cardinality of
+ * that intersection with one more bitmap. Built and kept current by {@link CatalogIndexRefresher}.
+ * <p>
+ * Counts are disjunctive: the counts for one facet apply the filters on the other facets only, so
+ * they show what picking a different value would return.
+ */
+@Component
+public class ProductFacetIndex implements CatalogIndex {
+
+    private static final int MAX_CACHED_COUNTS = 1_000;
+
+    // Lower bounds, ascending; the last band has no upper bound
+    @Value("${catalog.facets.price-bands:0,10,25,50,100,250,500,1000}")
+    private BigDecimal[] priceBands;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new TreeMap<>();
+    private final Map<Long, String> categoryNames = new TreeMap<>();
+    private RoaringBitmap[] byPriceBand;
+
+    // Counts only change when the index does, so they are kept until the next write
+    private final Map<FacetFilter, FacetCounts> countsCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        byPriceBand = new RoaringBitmap[priceBands.length];
+        for (int band = 0; band < priceBands.length; band++) {
+            byPriceBand[band] = new RoaringBitmap();
+        }
+    }
+
+    @Override
+    public void rebuild(Stream<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            inStock.clear();
+            byCategory.clear();
+            categoryNames.clear();
+            for (RoaringBitmap band : byPriceBand) {
+                band.clear();
+            }
+            products.forEach(this::add);
+            runOptimize();
+            countsCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(Collection<Long> changedIds, Map<Long, ProductDTO> current) {
+        lock.writeLock().lock();
+        try {
+            for (Long productId : changedIds) {
+                remove(position(productId));
+                ProductDTO product = current.get(productId);
+                if (product != null) {
+                    add(product);
+                }
+            }
+            countsCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetCounts counts(FacetFilter filter) {
+        int selectedBand = band(filter);
+        lock.readLock().lock();
+        try {
+            if (countsCache.size() >= MAX_CACHED_COUNTS) {
+                countsCache.clear();
+            }
+            return countsCache.computeIfAbsent(filter, f -> computeCounts(f, selectedBand));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FacetCounts computeCounts(FacetFilter filter, int selectedBand) {
+        List<FacetValue> categories = new ArrayList<>();
+        RoaringBitmap withoutCategory = matching(null, selectedBand, filter.inStock());
+        byCategory.forEach((categoryId, products) -> {
+            long count = RoaringBitmap.andCardinality(withoutCategory, products);
+            if (count > 0 || categoryId.equals(filter.categoryId())) {
+                categories.add(new FacetValue(categoryId.toString(), categoryNames.get(categoryId), count));
+            }
+        });
+
+        List<FacetValue> bands = new ArrayList<>();
+        RoaringBitmap withoutBand = matching(filter.categoryId(), -1, filter.inStock());
+        for (int band = 0; band < byPriceBand.length; band++) {
+            bands.add(new FacetValue(bandKey(band), bandKey(band), RoaringBitmap.andCardinality(withoutBand, byPriceBand[band])));
+        }
+
+        long inStockCount = RoaringBitmap.andCardinality(matching(filter.categoryId(), selectedBand, false), inStock);
+        long total = matching(filter.categoryId(), selectedBand, filter.inStock()).getLongCardinality();
+        return new FacetCounts(total, categories, bands, inStockCount);
+    }
+
+    // Ids above afterId that pass the filter, ascending, at most limit of them
+    public List<Long> productIds(FacetFilter filter, long afterId, int limit) {
+        int selectedBand = band(filter);
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>(limit);
+            if (afterId >= Integer.MAX_VALUE) {
+                return ids;
+            }
+            PeekableIntIterator iterator = matching(filter.categoryId(), selectedBand, filter.inStock()).getIntIterator();
+            iterator.advanceIfNeeded((int) afterId + 1);
+            while (iterator.hasNext() && ids.size() < limit) {
+                ids.add((long) iterator.next());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(FacetFilter filter) {
+        int selectedBand = band(filter);
+        lock.readLock().lock();
+        try {
+            return matching(filter.categoryId(), selectedBand, filter.inStock()).getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap matching(Long categoryId, int band, boolean inStockOnly) {
+        RoaringBitmap result = all;
+        if (categoryId != null) {
+            result = RoaringBitmap.and(result, byCategory.getOrDefault(categoryId, new RoaringBitmap()));
+        }
+        if (band >= 0) {
+            result = RoaringBitmap.and(result, byPriceBand[band]);
+        }
+        if (inStockOnly) {
+            result = RoaringBitmap.and(result, inStock);
+        }
+        return result;
+    }
+
+    private void add(ProductDTO product) {
+        int position = position(product.getId());
+        all.add(position);
+        if (product.getStock() != null && product.getStock() > 0) {
+            inStock.add(position);
+        }
+        if (product.getCategoryId() != null) {
+            byCategory.computeIfAbsent(product.getCategoryId(), id -> new RoaringBitmap()).add(position);
+            categoryNames.put(product.getCategoryId(), product.getCategoryName());
+        }
+        int band = bandOf(product.getPrice());
+        if (band >= 0) {
+            byPriceBand[band].add(position);
+        }
+    }
+
+    // Categories and bands are few, so clearing the bit everywhere is cheaper than tracking where it was
+    private void remove(int position) {
+        if (!all.checkedRemove(position)) {
+            return;
+        }
+        inStock.remove(position);
+        byCategory.values().removeIf(products -> products.checkedRemove(position) && products.isEmpty());
+        for (RoaringBitmap band : byPriceBand) {
+            band.remove(position);
+        }
+    }
+
+    private void runOptimize() {
+        all.runOptimize();
+        inStock.runOptimize();
+        byCategory.values().forEach(RoaringBitmap::runOptimize);
+        for (RoaringBitmap band : byPriceBand) {
+            band.runOptimize();
+        }
+    }
+
+    private int band(FacetFilter filter) {
+        if (filter.priceBand() == null) {
+            return -1;
+        }
+        for (int band = 0; band < priceBands.length; band++) {
+            if (bandKey(band).equals(filter.priceBand())) {
+                return band;
+            }
+        }
+        throw new IllegalArgumentException("Unknown price band: " + filter.priceBand());
+    }
+
+    private int bandOf(BigDecimal price) {
+        if (price == null) {
+            return -1;
+        }
+        int band = priceBands.length - 1;
+        while (band >= 0 && price.compareTo(priceBands[band]) < 0) {
+            band--;
+        }
+        return band;
+    }
+
+    private String bandKey(int band) {
+        String from = priceBands[band].toPlainString();
+        return band + 1 < priceBands.length ? from + "-" + priceBands[band + 1].toPlainString() : from + "+";
+    }
+
+    // Bitmaps hold 32-bit values; product ids come from a sequence and stay well below that
+    private static int position(Long productId) {
+        if (productId < 0 || productId > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Product id out of range for the facet index: " + productId);
+        }
+        return productId.intValue();
+    }
+}
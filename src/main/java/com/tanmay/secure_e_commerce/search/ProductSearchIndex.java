@@ -0,0 +1,536 @@
+package com.tanmay.secure_e_commerce.search;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductSearchResult;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over product name and description, ranked with BM25. Every query
+ * word also matches terms it is a prefix of, at a lower weight than an exact match. Name terms
+ * count {@value #NAME_WEIGHT} times as much as description terms.
+ * <p>
+ * Built and kept current by {@link CatalogIndexRefresher}. A changed name or description gets a
+ * new doc id and the old one is tombstoned; price, stock and category changes are applied in place.
+ * Tombstones are compacted away once they outnumber live docs.
+ */
+@Component
+public class ProductSearchIndex implements CatalogIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int MAX_RESULTS = 10_000;
+    private static final float PREFIX_WEIGHT = 0.6f;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+
+    // Per doc id; filters and ranking read these columns rather than the DTOs
+    private ProductDTO[] docs;
+    private long[] productIds;
+    private long[] categoryIds;
+    private long[] priceCents;
+    private int[] stocks;
+    private int[] lengths;
+    private int docCount;
+    private int liveCount;
+    private int deletedCount;
+    private long totalLength;
+
+    public ProductSearchIndex() {
+        clear();
+    }
+
+    @Override
+    public void rebuild(Stream<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(Collection<Long> changedIds, Map<Long, ProductDTO> current) {
+        lock.writeLock().lock();
+        try {
+            for (Long productId : changedIds) {
+                ProductDTO product = current.get(productId);
+                if (product == null) {
+                    remove(productId);
+                } else {
+                    upsert(product);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductSearchResult search(SearchCriteria criteria) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(criteria.query())));
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+        // page comes from the client: multiply in long so a huge page can't wrap around the cap
+        long end = (criteria.page() + 1L) * criteria.size();
+        if (end > MAX_RESULTS) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_RESULTS + " matches");
+        }
+        int limit = (int) end;
+
+        lock.readLock().lock();
+        try {
+            float avgLength = liveCount == 0 ? 1f : (float) totalLength / liveCount;
+            List<List<Expansion>> expanded = new ArrayList<>();
+            for (String word : words) {
+                List<Expansion> expansions = expand(word);
+                if (expansions.isEmpty()) {
+                    return new ProductSearchResult(new ArrayList<>(), 0);
+                }
+                expanded.add(expansions);
+            }
+            // Cheapest word first: its matches are the candidates the other words are checked against
+            expanded.sort(Comparator.comparingLong(ProductSearchIndex::cost));
+
+            Filter filter = Filter.of(criteria);
+            if (expanded.size() == 1 && expanded.get(0).size() == 1) {
+                return singleTerm(expanded.get(0).get(0), filter, criteria, limit, avgLength);
+            }
+            Candidates candidates = union(expanded.get(0), filter, avgLength);
+            for (int i = 1; i < expanded.size() && candidates.size > 0; i++) {
+                candidates.intersect(expanded.get(i), this, avgLength);
+            }
+            return topHits(candidates, criteria, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+        return Arrays.stream(NON_WORD.split(folded))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private void upsert(ProductDTO product) {
+        Integer doc = docByProduct.get(product.getId());
+        if (doc != null) {
+            ProductDTO indexed = docs[doc];
+            if (Objects.equals(indexed.getName(), product.getName())
+                    && Objects.equals(indexed.getDescription(), product.getDescription())) {
+                setColumns(doc, product);
+                return;
+            }
+            delete(doc);
+        }
+        add(product);
+    }
+
+    private void remove(Long productId) {
+        Integer doc = docByProduct.get(productId);
+        if (doc != null) {
+            delete(doc);
+        }
+    }
+
+    private void add(ProductDTO product) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        tokenize(product.getName()).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(product.getDescription()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+        int doc = docCount++;
+        if (doc == docs.length) {
+            grow(doc * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        setColumns(doc, product);
+        lengths[doc] = length;
+        totalLength += length;
+        liveCount++;
+        docByProduct.put(product.getId(), doc);
+    }
+
+    private void setColumns(int doc, ProductDTO product) {
+        docs[doc] = product;
+        productIds[doc] = product.getId();
+        categoryIds[doc] = product.getCategoryId() == null ? Long.MIN_VALUE : product.getCategoryId();
+        priceCents[doc] = product.getPrice() == null ? Long.MIN_VALUE : Filter.cents(product.getPrice(), RoundingMode.HALF_UP);
+        stocks[doc] = product.getStock() == null ? 0 : product.getStock();
+    }
+
+    private void grow(int capacity) {
+        docs = Arrays.copyOf(docs, capacity);
+        productIds = Arrays.copyOf(productIds, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        stocks = Arrays.copyOf(stocks, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+    }
+
+    private void delete(int doc) {
+        docByProduct.remove(docs[doc].getId());
+        docs[doc] = null;
+        totalLength -= lengths[doc];
+        liveCount--;
+        deletedCount++;
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount > 1024 && deletedCount > liveCount) {
+            List<ProductDTO> live = new ArrayList<>(liveCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                if (docs[doc] != null) {
+                    live.add(docs[doc]);
+                }
+            }
+            clear();
+            live.forEach(this::add);
+        }
+    }
+
+    private void clear() {
+        terms.clear();
+        docByProduct.clear();
+        docs = new ProductDTO[1024];
+        productIds = new long[1024];
+        categoryIds = new long[1024];
+        priceCents = new long[1024];
+        stocks = new int[1024];
+        lengths = new int[1024];
+        docCount = 0;
+        liveCount = 0;
+        deletedCount = 0;
+        totalLength = 0;
+    }
+
+    // The exact term plus up to MAX_EXPANSIONS terms that start with the word
+    private List<Expansion> expand(String word) {
+        List<Expansion> expansions = new ArrayList<>();
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            expansions.add(new Expansion(exact, idf(exact)));
+        }
+        int prefixes = 0;
+        for (Postings postings : terms.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+            if (prefixes++ >= MAX_EXPANSIONS) {
+                break;
+            }
+            expansions.add(new Expansion(postings, PREFIX_WEIGHT * idf(postings)));
+        }
+        return expansions;
+    }
+
+    private float idf(Postings postings) {
+        double df = postings.size;
+        return (float) Math.max(0.01, Math.log(1 + (liveCount - df + 0.5) / (df + 0.5)));
+    }
+
+    float score(Expansion expansion, int position, int doc, float avgLength) {
+        float freq = expansion.postings().freqs[position];
+        return expansion.weight() * freq * (K1 + 1) / (freq + K1 * (1 - B + B * lengths[doc] / avgLength));
+    }
+
+    private static long cost(List<Expansion> expansions) {
+        long cost = 0;
+        for (Expansion expansion : expansions) {
+            cost += expansion.postings().size;
+        }
+        return cost;
+    }
+
+    // Collects the docs matching any of one word's expansions in ascending order, keeping the best score per doc
+    private Candidates union(List<Expansion> expansions, Filter filter, float avgLength) {
+        if (expansions.size() == 1) {
+            Expansion expansion = expansions.get(0);
+            Postings postings = expansion.postings();
+            Candidates candidates = new Candidates(postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (accepts(doc, filter)) {
+                    candidates.add(doc, score(expansion, i, doc, avgLength));
+                }
+            }
+            return candidates;
+        }
+
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (Expansion expansion : expansions) {
+            Postings postings = expansion.postings();
+            first = Math.min(first, postings.docs[0]);
+            last = Math.max(last, postings.docs[postings.size - 1]);
+        }
+        int cost = (int) cost(expansions);
+        Candidates candidates = new Candidates(Math.min(cost, last - first + 1));
+
+        if (cost < (last - first + 1) / 8) {
+            // Few matches spread over many docs: sort (doc, score) pairs packed into longs
+            long[] hits = new long[cost];
+            int n = 0;
+            for (Expansion expansion : expansions) {
+                Postings postings = expansion.postings();
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    hits[n++] = (long) doc << 32 | Float.floatToRawIntBits(score(expansion, i, doc, avgLength));
+                }
+            }
+            Arrays.sort(hits);
+            for (int i = 0; i < n; i++) {
+                int doc = (int) (hits[i] >>> 32);
+                // Positive floats order like their bits, so the last entry of a doc holds its best score
+                if ((i + 1 == n || (int) (hits[i + 1] >>> 32) != doc) && accepts(doc, filter)) {
+                    candidates.add(doc, Float.intBitsToFloat((int) hits[i]));
+                }
+            }
+            return candidates;
+        }
+
+        // Dense matches: scatter the best score per doc into an array, then sweep it in doc order
+        float[] best = new float[last - first + 1];
+        for (Expansion expansion : expansions) {
+            Postings postings = expansion.postings();
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                best[doc - first] = Math.max(best[doc - first], score(expansion, i, doc, avgLength));
+            }
+        }
+        for (int doc = first; doc <= last; doc++) {
+            if (best[doc - first] > 0 && accepts(doc, filter)) {
+                candidates.add(doc, best[doc - first]);
+            }
+        }
+        return candidates;
+    }
+
+    private boolean accepts(int doc, Filter filter) {
+        return docs[doc] != null
+                && (filter.anyCategory() || categoryIds[doc] == filter.categoryId())
+                && priceCents[doc] >= filter.minCents()
+                && priceCents[doc] <= filter.maxCents()
+                && (!filter.inStock() || stocks[doc] > 0);
+    }
+
+    // One postings list: rank straight from it without collecting candidates
+    private ProductSearchResult singleTerm(Expansion expansion, Filter filter, SearchCriteria criteria, int limit,
+                                           float avgLength) {
+        Postings postings = expansion.postings();
+        TopHits best = new TopHits(limit);
+        int total = 0;
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            if (accepts(doc, filter)) {
+                total++;
+                best.offer(doc, score(expansion, i, doc, avgLength), productIds[doc]);
+            }
+        }
+        return page(best, limit - criteria.size(), total);
+    }
+
+    private ProductSearchResult topHits(Candidates candidates, SearchCriteria criteria, int limit) {
+        TopHits best = new TopHits(limit);
+        for (int i = 0; i < candidates.size; i++) {
+            int doc = candidates.docs[i];
+            best.offer(doc, candidates.scores[i], productIds[doc]);
+        }
+        return page(best, limit - criteria.size(), candidates.size);
+    }
+
+    private ProductSearchResult page(TopHits best, int offset, long total) {
+        int[] ranked = best.ranked();
+        List<ProductDTO> items = new ArrayList<>();
+        for (int i = offset; i < ranked.length; i++) {
+            items.add(docs[ranked[i]]);
+        }
+        return new ProductSearchResult(items, total);
+    }
+
+    record Filter(boolean anyCategory, long categoryId, long minCents, long maxCents, boolean inStock) {
+
+        static Filter of(SearchCriteria criteria) {
+            return new Filter(
+                    criteria.categoryId() == null,
+                    criteria.categoryId() == null ? 0 : criteria.categoryId(),
+                    criteria.minPrice() == null ? Long.MIN_VALUE : cents(criteria.minPrice(), RoundingMode.CEILING),
+                    criteria.maxPrice() == null ? Long.MAX_VALUE : cents(criteria.maxPrice(), RoundingMode.FLOOR),
+                    criteria.inStock());
+        }
+
+        static long cents(BigDecimal amount, RoundingMode rounding) {
+            BigDecimal cents = amount.movePointRight(2).setScale(0, rounding);
+            if (cents.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+                return Long.MAX_VALUE;
+            }
+            return cents.max(BigDecimal.valueOf(Long.MIN_VALUE + 1)).longValue();
+        }
+    }
+
+    // Bounded min-heap keeping the best hits; the weakest sits at the root, ties go to the lower product id
+    static final class TopHits {
+        private final int[] docs;
+        private final float[] scores;
+        private final long[] ids;
+        private int size;
+
+        TopHits(int limit) {
+            docs = new int[limit];
+            scores = new float[limit];
+            ids = new long[limit];
+        }
+
+        void offer(int doc, float score, long id) {
+            if (size < docs.length) {
+                set(size, doc, score, id);
+                siftUp(size++);
+            } else if (size > 0 && weaker(scores[0], ids[0], score, id)) {
+                set(0, doc, score, id);
+                siftDown(0);
+            }
+        }
+
+        // Best first
+        int[] ranked() {
+            int[] ranked = new int[size];
+            while (size > 0) {
+                ranked[size - 1] = docs[0];
+                size--;
+                set(0, docs[size], scores[size], ids[size]);
+                siftDown(0);
+            }
+            return ranked;
+        }
+
+        private static boolean weaker(float score, long id, float otherScore, long otherId) {
+            return score < otherScore || (score == otherScore && id > otherId);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!weaker(scores[i], ids[i], scores[parent], ids[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int weakest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (weaker(scores[child], ids[child], scores[weakest], ids[weakest])) {
+                        weakest = child;
+                    }
+                }
+                if (weakest == i) {
+                    return;
+                }
+                swap(i, weakest);
+                i = weakest;
+            }
+        }
+
+        private void set(int i, int doc, float score, long id) {
+            docs[i] = doc;
+            scores[i] = score;
+            ids[i] = id;
+        }
+
+        private void swap(int i, int j) {
+            int doc = docs[i];
+            float score = scores[i];
+            long id = ids[i];
+            set(i, docs[j], scores[j], ids[j]);
+            set(j, doc, score, id);
+        }
+    }
+
+    record Expansion(Postings postings, float weight) {
+    }
+
+    // Matching doc ids in ascending order with their running scores
+    static final class Candidates {
+        int[] docs;
+        float[] scores;
+        int size;
+
+        Candidates(int capacity) {
+            docs = new int[Math.max(capacity, 1)];
+            scores = new float[Math.max(capacity, 1)];
+        }
+
+        void add(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        // Keeps the candidates that also match one of the expansions, adding that word's best score
+        void intersect(List<Expansion> expansions, ProductSearchIndex index, float avgLength) {
+            int[] positions = new int[expansions.size()];
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = docs[i];
+                float best = 0;
+                for (int e = 0; e < expansions.size(); e++) {
+                    Postings postings = expansions.get(e).postings();
+                    int position = postings.seek(positions[e], doc);
+                    positions[e] = position;
+                    if (position < postings.size && postings.docs[position] == doc) {
+                        best = Math.max(best, index.score(expansions.get(e), position, doc, avgLength));
+                    }
+                }
+                if (best > 0) {
+                    docs[kept] = doc;
+                    scores[kept] = scores[i] + best;
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
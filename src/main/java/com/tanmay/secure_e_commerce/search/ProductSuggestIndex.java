@@ -0,0 +1,424 @@
+package com.tanmay.secure_e_commerce.search;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductSales;
+import com.tanmay.secure_e_commerce.dto.ProductSuggestion;
+import com.tanmay.secure_e_commerce.event.ProductsSoldEvent;
+import com.tanmay.secure_e_commerce.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Product name autocomplete, ranked by units sold.
+ * <p>
+ * Names are folded the same way as search terms and kept sorted as UTF-8 bytes in one shared array,
+ * so the names starting with a prefix are one contiguous range found by binary search. A max segment
+ * tree over the sales counts picks the best k of any range without scanning it. There are no
+ * per-name objects: a million names cost roughly their bytes plus about 40 bytes each.
+ * <p>
+ * New and renamed products go to a small sorted overlay, and removed ones are marked dead, until
+ * the overlay reaches {@code catalog.suggest.overlay-size}; it is then merged into the sorted arrays
+ * in one linear pass. Sales from {@link ProductsSoldEvent} update the weights in place.
+ */
+@Component
+public class ProductSuggestIndex implements CatalogIndex {
+
+    public static final int MAX_LIMIT = 20;
+
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        int byKey = Arrays.compareUnsigned(a.key, b.key);
+        return byKey != 0 ? byKey : Long.compare(a.id, b.id);
+    };
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${catalog.suggest.overlay-size:4096}")
+    private int overlaySize = 4096;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sorted by (key, product id); entry i's key is keyBytes[keyOffsets[i], keyOffsets[i + 1])
+    private byte[] keyBytes = new byte[0];
+    private int[] keyOffsets = {0};
+    private byte[] nameBytes = new byte[0];
+    private int[] nameOffsets = {0};
+    private long[] ids = new long[0];
+    private long[] weights = new long[0];
+    private int size;
+    private final BitSet dead = new BitSet();
+
+    // Leaves hold entry positions, inner nodes the position of their best leaf; -1 when empty or dead
+    private int[] tree = {-1, -1};
+    private int leaves = 1;
+
+    // Product id to position, as parallel arrays sorted by id
+    private long[] sortedIds = new long[0];
+    private int[] positionsById = new int[0];
+
+    private final TreeSet<Entry> overlay = new TreeSet<>(ORDER);
+    private final Map<Long, Entry> overlayById = new HashMap<>();
+
+    @Override
+    public void rebuild(Stream<ProductDTO> products) {
+        rebuild(products, orderRepository.sumQuantityByProduct()
+                .stream()
+                .collect(Collectors.toMap(ProductSales::productId, ProductSales::quantity)));
+    }
+
+    public void rebuild(Stream<ProductDTO> products, Map<Long, Long> sales) {
+        List<Entry> entries = products
+                .map(product -> new Entry(product.getId(), key(product.getName()), product.getName(),
+                        sales.getOrDefault(product.getId(), 0L)))
+                .sorted(ORDER)
+                .toList();
+        Packer packer = new Packer(entries.size());
+        for (Entry entry : entries) {
+            packer.add(entry);
+        }
+
+        lock.writeLock().lock();
+        try {
+            overlay.clear();
+            overlayById.clear();
+            install(packer);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(Collection<Long> changedIds, Map<Long, ProductDTO> current) {
+        lock.writeLock().lock();
+        try {
+            for (Long productId : changedIds) {
+                ProductDTO product = current.get(productId);
+                String name = product == null ? null : product.getName();
+                long weight = 0;
+
+                int position = position(productId);
+                Entry indexed = overlayById.get(productId);
+                if (position >= 0) {
+                    if (name != null && name.equals(name(position))) {
+                        continue;
+                    }
+                    weight = weights[position];
+                    dead.set(position);
+                    update(position);
+                } else if (indexed != null) {
+                    if (indexed.name.equals(name)) {
+                        continue;
+                    }
+                    weight = indexed.weight;
+                    overlay.remove(indexed);
+                    overlayById.remove(productId);
+                }
+
+                if (name != null) {
+                    Entry entry = new Entry(productId, key(name), name, weight);
+                    overlay.add(entry);
+                    overlayById.put(productId, entry);
+                }
+            }
+            if (overlay.size() > overlaySize) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsSold(ProductsSoldEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.quantities().forEach((productId, quantity) -> {
+                int position = position(productId);
+                if (position >= 0) {
+                    weights[position] += quantity;
+                    update(position);
+                } else if (overlayById.containsKey(productId)) {
+                    overlayById.get(productId).weight += quantity;
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        byte[] prefix = key(query);
+        if (prefix.length == 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Entry> best = new ArrayList<>();
+            for (int position : top(lowerBound(prefix), upperBound(prefix), limit)) {
+                best.add(new Entry(ids[position], key(position), name(position), weights[position]));
+            }
+            byte[] end = Arrays.copyOf(prefix, prefix.length + 1);
+            end[prefix.length] = (byte) 0xFF; // never appears in UTF-8, so it sorts after every continuation
+            for (Entry entry : overlay.subSet(new Entry(Long.MIN_VALUE, prefix, null, 0), new Entry(Long.MIN_VALUE, end, null, 0))) {
+                best.add(entry);
+            }
+
+            return best.stream()
+                    .sorted(Comparator.comparingLong((Entry entry) -> entry.weight).reversed().thenComparing(ORDER))
+                    .limit(limit)
+                    .map(entry -> new ProductSuggestion(entry.id, entry.name))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - dead.cardinality() + overlay.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Folded words joined by single spaces, so "Café  Crème" and "cafe creme" are the same key
+    static byte[] key(String text) {
+        return String.join(" ", ProductSearchIndex.tokenize(text)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Canonical nodes of [from, to) go into a max-heap; popping an inner node pushes its two children
+    private List<Integer> top(int from, int to, int limit) {
+        PriorityQueue<Integer> nodes = new PriorityQueue<>((a, b) -> better(tree[a], tree[b]) == tree[a] ? -1 : 1);
+        for (int left = from + leaves, right = to + leaves; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                offer(nodes, left++);
+            }
+            if ((right & 1) == 1) {
+                offer(nodes, --right);
+            }
+        }
+
+        List<Integer> positions = new ArrayList<>(limit);
+        while (!nodes.isEmpty() && positions.size() < limit) {
+            int node = nodes.poll();
+            if (node >= leaves) {
+                positions.add(tree[node]);
+            } else {
+                offer(nodes, 2 * node);
+                offer(nodes, 2 * node + 1);
+            }
+        }
+        return positions;
+    }
+
+    private void offer(PriorityQueue<Integer> nodes, int node) {
+        if (tree[node] >= 0) {
+            nodes.add(node);
+        }
+    }
+
+    // Higher weight wins; on a tie the earlier position, which is the alphabetically first name
+    private int better(int a, int b) {
+        if (a < 0 || b < 0) {
+            return Math.max(a, b);
+        }
+        if (weights[a] != weights[b]) {
+            return weights[a] > weights[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private void update(int position) {
+        int node = position + leaves;
+        tree[node] = dead.get(position) ? -1 : position;
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private int position(long productId) {
+        int index = Arrays.binarySearch(sortedIds, productId);
+        if (index < 0) {
+            return -1;
+        }
+        int position = positionsById[index];
+        return dead.get(position) ? -1 : position;
+    }
+
+    // First entry whose key is >= prefix
+    private int lowerBound(byte[] prefix) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Arrays.compareUnsigned(keyBytes, keyOffsets[mid], keyOffsets[mid + 1], prefix, 0, prefix.length) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First entry whose key is past every key starting with prefix
+    private int upperBound(byte[] prefix) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int end = Math.min(keyOffsets[mid + 1], keyOffsets[mid] + prefix.length);
+            if (Arrays.compareUnsigned(keyBytes, keyOffsets[mid], end, prefix, 0, prefix.length) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private byte[] key(int position) {
+        return Arrays.copyOfRange(keyBytes, keyOffsets[position], keyOffsets[position + 1]);
+    }
+
+    private String name(int position) {
+        return new String(nameBytes, nameOffsets[position], nameOffsets[position + 1] - nameOffsets[position], StandardCharsets.UTF_8);
+    }
+
+    // Merges the live sorted entries with the overlay, both already in ORDER
+    private void compact() {
+        Packer packer = new Packer(size + overlay.size());
+        Iterator<Entry> pending = overlay.iterator();
+        Entry next = pending.hasNext() ? pending.next() : null;
+        for (int position = 0; position < size; position++) {
+            if (dead.get(position)) {
+                continue;
+            }
+            Entry entry = new Entry(ids[position], key(position), null, weights[position]);
+            while (next != null && ORDER.compare(next, entry) < 0) {
+                packer.add(next);
+                next = pending.hasNext() ? pending.next() : null;
+            }
+            packer.add(entry.key, nameBytes, nameOffsets[position], nameOffsets[position + 1], entry.id, entry.weight);
+        }
+        while (next != null) {
+            packer.add(next);
+            next = pending.hasNext() ? pending.next() : null;
+        }
+        overlay.clear();
+        overlayById.clear();
+        install(packer);
+    }
+
+    private void install(Packer packer) {
+        size = packer.count;
+        keyBytes = Arrays.copyOf(packer.keyBytes, packer.keyOffsets[size]);
+        keyOffsets = Arrays.copyOf(packer.keyOffsets, size + 1);
+        nameBytes = Arrays.copyOf(packer.nameBytes, packer.nameOffsets[size]);
+        nameOffsets = Arrays.copyOf(packer.nameOffsets, size + 1);
+        ids = Arrays.copyOf(packer.ids, size);
+        weights = Arrays.copyOf(packer.weights, size);
+        dead.clear();
+
+        Integer[] byId = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            byId[i] = i;
+        }
+        Arrays.sort(byId, Comparator.comparingLong(i -> ids[i]));
+        sortedIds = new long[size];
+        positionsById = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedIds[i] = ids[byId[i]];
+            positionsById[i] = byId[i];
+        }
+
+        leaves = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        tree = new int[2 * leaves];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < size; i++) {
+            tree[leaves + i] = i;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private static final class Entry {
+        final long id;
+        final byte[] key;
+        final String name;
+        long weight;
+
+        Entry(long id, byte[] key, String name, long weight) {
+            this.id = id;
+            this.key = key;
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+
+    // Appends entries, in order, to growable flat arrays
+    private static final class Packer {
+        byte[] keyBytes;
+        int[] keyOffsets;
+        byte[] nameBytes;
+        int[] nameOffsets;
+        long[] ids;
+        long[] weights;
+        int count;
+
+        Packer(int capacity) {
+            keyBytes = new byte[Math.max(16, capacity * 16)];
+            keyOffsets = new int[capacity + 1];
+            nameBytes = new byte[Math.max(16, capacity * 16)];
+            nameOffsets = new int[capacity + 1];
+            ids = new long[capacity];
+            weights = new long[capacity];
+        }
+
+        void add(Entry entry) {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            add(entry.key, name, 0, name.length, entry.id, entry.weight);
+        }
+
+        void add(byte[] key, byte[] names, int nameFrom, int nameTo, long id, long weight) {
+            keyBytes = append(keyBytes, keyOffsets[count], key, 0, key.length);
+            keyOffsets[count + 1] = keyOffsets[count] + key.length;
+            nameBytes = append(nameBytes, nameOffsets[count], names, nameFrom, nameTo - nameFrom);
+            nameOffsets[count + 1] = nameOffsets[count] + nameTo - nameFrom;
+            ids[count] = id;
+            weights[count] = weight;
+            count++;
+        }
+
+        private static byte[] append(byte[] target, int at, byte[] source, int from, int length) {
+            if (at + length > target.length) {
+                target = Arrays.copyOf(target, Math.max(target.length * 2, at + length));
+            }
+            System.arraycopy(source, from, target, at, length);
+            return target;
+        }
+    }
+}
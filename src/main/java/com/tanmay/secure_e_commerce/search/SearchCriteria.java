@@ -0,0 +1,7 @@
+package com.tanmay.secure_e_commerce.search;
+
+import java.math.BigDecimal;
+
+public record SearchCriteria(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, boolean inStock,
+                             int page, int size) {
+}
@@ -0,0 +1,72 @@
+package com.tanmay.secure_e_commerce.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt at a configured cost, or one picked for this hardware. Every stored hash already carries its own cost
+ * ({@code $2a$12$...}), so hashes of any cost keep verifying; {@link #upgradeEncoding} flags the
+ * ones below the current cost, or more than {@code maxExcess} steps above it (each step doubles
+ * the time), and the login that verifies such a hash stores a new one.
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private static final int REFERENCE_STRENGTH = 10;
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int strength;
+    private final int maxExcess;
+
+    public AdaptiveBCryptPasswordEncoder(int strength, int maxExcess) {
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.maxExcess = maxExcess;
+    }
+
+    /**
+     * The cost whose hash time is closest to {@code targetMillis}, from the fastest of a few
+     * hashes at cost 10, kept within {@code minStrength} and {@code maxStrength}.
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder reference = new BCryptPasswordEncoder(REFERENCE_STRENGTH);
+        reference.encode("warm-up");
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            reference.encode("calibration");
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+
+        double steps = Math.log((double) targetMillis * 1_000_000 / Math.max(fastestNanos, 1)) / Math.log(2);
+        int strength = REFERENCE_STRENGTH + (int) Math.round(steps);
+        return Math.max(minStrength, Math.min(maxStrength, strength));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return bcrypt.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return bcrypt.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher cost = BCRYPT_COST.matcher(encodedPassword);
+        if (!cost.find()) {
+            return false;
+        }
+        int stored = Integer.parseInt(cost.group(1));
+        return stored < strength || stored > strength + maxExcess;
+    }
+}
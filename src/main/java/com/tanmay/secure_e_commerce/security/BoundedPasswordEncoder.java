@@ -0,0 +1,103 @@
+package com.tanmay.secure_e_commerce.security;
+
+import com.tanmay.secure_e_commerce.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead for password hashing: every hash runs on a fixed pool of {@code threads} with room for
+ * {@code queueCapacity} more waiting, so a login storm can take at most that many CPUs and request
+ * threads. Past that, logins fail at once with {@link ServiceUnavailableException} (503 with
+ * {@code Retry-After}) instead of queueing behind each other while the rest of the API stalls.
+ * Published as {@code auth.hashing.queue.size}, {@code auth.hashing.active},
+ * {@code auth.hashing.duration} by {@code operation}, {@code auth.hashing.wait} and
+ * {@code auth.hashing.rejected}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTime;
+    private final Timer matchesTime;
+    private final Timer waitTime;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("auth.hashing.queue.size", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+        this.encodeTime = Timer.builder("auth.hashing.duration").tag("operation", "encode").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.matchesTime = Timer.builder("auth.hashing.duration").tag("operation", "matches").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.waitTime = Timer.builder("auth.hashing.wait").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.rejected = meterRegistry.counter("auth.hashing.rejected");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTime, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTime, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Callable<T> hash) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                waitTime.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many logins in progress, please retry");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Login interrupted, please retry");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
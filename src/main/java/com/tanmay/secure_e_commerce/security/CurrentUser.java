@@ -0,0 +1,43 @@
+package com.tanmay.secure_e_commerce.security;
+
+import com.tanmay.secure_e_commerce.exception.UnauthorizedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * The user behind the current request, taken from the principal the JWT filter stored in the
+ * request's security context. Only tokens issued without a {@code uid} claim need a users
+ * lookup, and the resolved principal is written back so it happens at most once per request.
+ */
+@Component
+public class CurrentUser {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    public AuthenticatedUser get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            throw new UnauthorizedException("Authentication required");
+        }
+
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.getId() != null) {
+            return user;
+        }
+
+        AuthenticatedUser user = userDetailsService.loadUserByUsername(authentication.getName());
+        UsernamePasswordAuthenticationToken resolved =
+                new UsernamePasswordAuthenticationToken(user, null, authentication.getAuthorities());
+        resolved.setDetails(authentication.getDetails());
+        SecurityContextHolder.getContext().setAuthentication(resolved);
+        return user;
+    }
+
+    public Long getId() {
+        return get().getId();
+    }
+}
@@ -1,10 +1,12 @@
 package com.tanmay.secure_e_commerce.security;
 
+import com.tanmay.secure_e_commerce.enums.Role;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,35 +25,80 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
         String jwt = null;
 
         if(authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                logger.error("Token extraction failed: " + e.getMessage());
-            }
         }
 
-        if(username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if(jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = stateless ? authenticateFromClaims(jwt) : authenticateFromDatabase(jwt);
 
-            if(jwtUtil.validateToken(jwt, userDetails)) {
+            if(userDetails != null) {
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    // Principal and authorities come straight from the verified claims, no users query
+    private UserDetails authenticateFromClaims(String jwt) {
+        UserDetails cached = verifiedTokenCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+
+        TokenClaims claims = parse(jwt);
+        if (claims == null || claims.subject() == null || claims.role() == null) {
+            return null;
+        }
+
+        Role role;
+        try {
+            role = Role.valueOf(claims.role());
+        } catch (IllegalArgumentException e) {
+            logger.error("Unknown role in token: " + claims.role());
+            return null;
+        }
+
+        UserDetails userDetails = new AuthenticatedUser(claims.userId(), claims.subject(), "", role);
+        verifiedTokenCache.put(jwt, userDetails, claims.expiresAt());
+        return userDetails;
+    }
+
+    private UserDetails authenticateFromDatabase(String jwt) {
+        TokenClaims claims = parse(jwt);
+        if (claims == null || claims.subject() == null) {
+            return null;
+        }
+
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.subject());
+        return jwtUtil.validateToken(claims, userDetails) ? userDetails : null;
+    }
+
+    private TokenClaims parse(String jwt) {
+        try {
+            return jwtUtil.parseToken(jwt);
+        } catch (Exception e) {
+            logger.error("Token extraction failed: " + e.getMessage());
+            return null;
+        }
+    }
 }
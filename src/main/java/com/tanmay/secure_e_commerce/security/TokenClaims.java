@@ -0,0 +1,11 @@
+package com.tanmay.secure_e_commerce.security;
+
+/**
+ * The claims of a token that has already been verified, parsed once and reused.
+ */
+public record TokenClaims(String subject, Long userId, String role, long expiresAt) {
+
+    public boolean isExpired() {
+        return expiresAt < System.currentTimeMillis();
+    }
+}
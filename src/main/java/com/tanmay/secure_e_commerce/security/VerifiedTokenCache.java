@@ -0,0 +1,79 @@
+package com.tanmay.secure_e_commerce.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of tokens whose signature has already been verified, keyed by the
+ * SHA-256 digest of the token. An entry never outlives the token's own {@code exp}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${jwt.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<Digest, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    public UserDetails get(String token) {
+        Digest key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.principal();
+    }
+
+    public void put(String token, UserDetails principal, long tokenExpiresAt) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(tokenExpiresAt, now + ttlSeconds * 1000);
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        entries.put(digest(token), new Entry(principal, expiresAt));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Digest digest(String token) {
+        ByteBuffer hash = ByteBuffer.wrap(sha256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    private record Digest(long a, long b, long c, long d) {
+    }
+
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+}
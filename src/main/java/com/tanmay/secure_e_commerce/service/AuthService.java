@@ -5,12 +5,12 @@ import com.tanmay.secure_e_commerce.dto.AuthResponse;
 import com.tanmay.secure_e_commerce.entity.User;
 import com.tanmay.secure_e_commerce.enums.Role;
 import com.tanmay.secure_e_commerce.repository.UserRepository;
-import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.security.AuthenticatedUser;
 import com.tanmay.secure_e_commerce.security.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -27,22 +27,32 @@ public class AuthService {
     private AuthenticationManager authenticationManager;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private RefreshTokenService refreshTokenService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
-    //Login
+    //Login: the principal the password check loaded is the only users query
     public AuthResponse login(AuthRequest request) {
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
         );
 
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
-        final User user = userDetailsService.getUserByUsername(request.getUsername());
-        final String jwt = jwtUtil.generateToken(userDetails, user.getRole().name());
+        final AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        final String jwt = jwtUtil.generateToken(user, user.getRole().name());
+        final String refreshToken = refreshTokenService.issue(user.getId());
 
-        return new AuthResponse(jwt, user.getUsername(), user.getRole().name());
+        return new AuthResponse(jwt, refreshToken, user.getUsername(), user.getRole().name());
+    }
+
+    //Refresh: no password hashing, one lookup of the token with its user
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = rotation.user();
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
+        final String jwt = jwtUtil.generateToken(principal, user.getRole().name());
+
+        return new AuthResponse(jwt, rotation.refreshToken(), user.getUsername(), user.getRole().name());
     }
 
     //register
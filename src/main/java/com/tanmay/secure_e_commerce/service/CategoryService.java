@@ -2,14 +2,12 @@ package com.tanmay.secure_e_commerce.service;
 
 import com.tanmay.secure_e_commerce.dto.CategoryDTO;
 import com.tanmay.secure_e_commerce.entity.Category;
-import com.tanmay.secure_e_commerce.entity.User;
-import com.tanmay.secure_e_commerce.enums.Role;
-import com.tanmay.secure_e_commerce.exception.ForbiddenException;
+import com.tanmay.secure_e_commerce.event.CategoriesChangedEvent;
 import com.tanmay.secure_e_commerce.exception.ResourceNotFoundException;
 import com.tanmay.secure_e_commerce.repository.CategoryRepository;
-import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,35 +21,25 @@ public class CategoryService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
-
-    private void validateAdminRole() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userDetailsService.getUserByUsername(username);
-
-        if (user.getRole() != Role.ADMIN) {
-            throw new ForbiddenException("Only ADMIN can perform this operation");
-        }
-    }
+    private ApplicationEventPublisher eventPublisher;
 
     //Create
     @Transactional
+    @PreAuthorize("hasRole('ADMIN')")
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
-        validateAdminRole();
-
         Category category = new Category();
         category.setName(categoryDTO.getName());
         category.setDescription(categoryDTO.getDescription());
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoriesChangedEvent(savedCategory.getId()));
         return convertToDTO(savedCategory);
     }
 
     //Update
     @Transactional
+    @PreAuthorize("hasRole('ADMIN')")
     public CategoryDTO updateCategory(Long id, CategoryDTO categoryDTO) {
-        validateAdminRole();
-
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
 
@@ -59,18 +47,19 @@ public class CategoryService {
         category.setDescription(categoryDTO.getDescription());
 
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoriesChangedEvent(id));
         return convertToDTO(updatedCategory);
     }
 
     //Delete
     @Transactional
+    @PreAuthorize("hasRole('ADMIN')")
     public void deleteCategory(Long id) {
-        validateAdminRole();
-
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoriesChangedEvent(id));
     }
 
     //Read
@@ -92,6 +81,7 @@ public class CategoryService {
         dto.setId(category.getId());
         dto.setName(category.getName());
         dto.setDescription(category.getDescription());
+        dto.setUpdatedAt(category.getUpdatedAt());
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderExportRow;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.enums.DataFormat;
+import com.tanmay.secure_e_commerce.repository.OrderRepository;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes full order and product dumps straight from a database cursor to the response.
+ * Rows are projections, so nothing accumulates in the persistence context, and the
+ * writer is flushed every {@code export.flush-rows} rows.
+ */
+@Service
+public class ExportService {
+
+    private static final String ORDERS_CSV_HEADER =
+            "order_id,user_id,username,status,total_amount,item_id,product_id,product_name,quantity,price";
+
+    private static final String PRODUCTS_CSV_HEADER =
+            "id,sku,name,description,price,stock,category_id,category_name";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.flush-rows:1000}")
+    private int flushRows;
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportOrders(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<OrderExportRow> rows = orderRepository.streamExportRows()) {
+            writeOrders(rows, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportProducts(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<ProductDTO> rows = productRepository.streamAllDTOs()) {
+            writeProducts(rows, format, out);
+        }
+    }
+
+    void writeOrders(Stream<OrderExportRow> rows, DataFormat format, OutputStream out) throws IOException {
+        ChunkedWriter writer = new ChunkedWriter(out);
+        if (format == DataFormat.CSV) {
+            writer.writeLine(ORDERS_CSV_HEADER);
+            Iterator<OrderExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                OrderExportRow row = it.next();
+                writer.writeLine(csv(row.orderId(), row.userId(), row.username(), row.status(), row.totalAmount(),
+                        row.itemId(), row.productId(), row.productName(), row.quantity(), row.price()));
+            }
+        } else {
+            // Rows arrive grouped by order id, so only the order being assembled is held in memory
+            OrderDTO current = null;
+            Iterator<OrderExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                OrderExportRow row = it.next();
+                if (current == null || !current.getId().equals(row.orderId())) {
+                    if (current != null) {
+                        writer.writeLine(objectMapper.writeValueAsString(current));
+                    }
+                    current = new OrderDTO(row.orderId(), row.userId(), row.username(), new ArrayList<>(),
+                            row.totalAmount(), row.status());
+                }
+                if (row.itemId() != null) {
+                    current.getOrderItems().add(new OrderItemDTO(row.itemId(), row.productId(), row.productName(),
+                            row.quantity(), row.price()));
+                }
+            }
+            if (current != null) {
+                writer.writeLine(objectMapper.writeValueAsString(current));
+            }
+        }
+        writer.finish();
+    }
+
+    void writeProducts(Stream<ProductDTO> rows, DataFormat format, OutputStream out) throws IOException {
+        ChunkedWriter writer = new ChunkedWriter(out);
+        if (format == DataFormat.CSV) {
+            writer.writeLine(PRODUCTS_CSV_HEADER);
+        }
+        Iterator<ProductDTO> it = rows.iterator();
+        while (it.hasNext()) {
+            ProductDTO product = it.next();
+            writer.writeLine(format == DataFormat.CSV
+                    ? csv(product.getId(), product.getSku(), product.getName(), product.getDescription(), product.getPrice(),
+                            product.getStock(), product.getCategoryId(), product.getCategoryName())
+                    : objectMapper.writeValueAsString(product));
+        }
+        writer.finish();
+    }
+
+    private static String csv(Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        return line.toString();
+    }
+
+    private class ChunkedWriter {
+        private final Writer writer;
+        private int pending;
+
+        ChunkedWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        void writeLine(String line) {
+            try {
+                writer.write(line);
+                writer.write('\n');
+                if (++pending >= flushRows) {
+                    writer.flush();
+                    pending = 0;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
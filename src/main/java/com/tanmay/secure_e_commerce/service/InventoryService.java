@@ -0,0 +1,79 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.exception.ResourceNotFoundException;
+import com.tanmay.secure_e_commerce.inventory.FlashSaleInventory;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class InventoryService {
+
+    // Check and decrement in one statement: matches no row instead of letting stock go negative,
+    // and leaves flash-sale products to their in-memory counter
+    private static final String DECREMENT_STOCK =
+            "update products set stock = stock - ?, updated_at = ?, version = version + 1 where id = ? and stock >= ? and flash_sale = false";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private FlashSaleInventory flashSaleInventory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves stock for every product in the caller's transaction: one query loads the products
+     * and one JDBC batch decrements them, whatever the number of lines. The batch runs in
+     * ascending id order so two orders touching the same products always lock their rows in the
+     * same sequence and cannot deadlock. A failed reservation throws and the caller's rollback
+     * releases the earlier ones.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Product> reserve(SortedMap<Long, Integer> quantities) {
+        Map<Long, Product> found = productRepository.findAllById(quantities.keySet())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Timestamp now = Timestamp.from(Instant.now());
+        Map<Long, Product> products = new LinkedHashMap<>();
+        List<Object[]> decrements = new ArrayList<>();
+        List<Product> decremented = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            Product product = found.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            if (!flashSaleInventory.reserve(product, quantity)) {
+                decrements.add(new Object[]{quantity, now, productId, quantity});
+                decremented.add(product);
+            }
+            products.put(productId, product);
+        });
+
+        int[] updated = decrements.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(DECREMENT_STOCK, decrements);
+        for (int i = 0; i < updated.length; i++) {
+            Product product = decremented.get(i);
+            // A flash sale that started while the row update waited for its lock takes over
+            if (updated[i] == 0 && !flashSaleInventory.reserve(product, quantities.get(product.getId()))) {
+                throw new IllegalArgumentException("Insufficient stock for : " + product.getName());
+            }
+        }
+        return products;
+    }
+}
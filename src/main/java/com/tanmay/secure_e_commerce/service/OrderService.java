@@ -1,25 +1,41 @@
 package com.tanmay.secure_e_commerce.service;
 
+import com.tanmay.secure_e_commerce.config.PaginationConfig;
+import com.tanmay.secure_e_commerce.dto.CursorPage;
 import com.tanmay.secure_e_commerce.dto.OrderDTO;
 import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemRow;
+import com.tanmay.secure_e_commerce.dto.OrderRow;
 import com.tanmay.secure_e_commerce.entity.Order;
 import com.tanmay.secure_e_commerce.entity.OrderItem;
 import com.tanmay.secure_e_commerce.entity.Product;
-import com.tanmay.secure_e_commerce.entity.User;
 import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import com.tanmay.secure_e_commerce.event.ProductsSoldEvent;
 import com.tanmay.secure_e_commerce.enums.Role;
 import com.tanmay.secure_e_commerce.exception.ForbiddenException;
+import com.tanmay.secure_e_commerce.intake.OrderIntake;
+import com.tanmay.secure_e_commerce.outbox.OrderOutbox;
 import com.tanmay.secure_e_commerce.exception.ResourceNotFoundException;
 import com.tanmay.secure_e_commerce.repository.OrderRepository;
-import com.tanmay.secure_e_commerce.repository.ProductRepository;
-import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.repository.UserRepository;
+import com.tanmay.secure_e_commerce.security.AuthenticatedUser;
+import com.tanmay.secure_e_commerce.security.CurrentUser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,55 +45,51 @@ public class OrderService {
     private OrderRepository orderRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private InventoryService inventoryService;
 
-    private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userDetailsService.getUserByUsername(username);
-    }
+    @Autowired
+    private CurrentUser currentUser;
 
-    private void validateCustomerRole() {
-        User user = getCurrentUser();
-        if (user.getRole() != Role.CUSTOMER) {
-            throw new ForbiddenException("Only CUSTOMER users can perform this operation");
-        }
-    }
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-    private void validateAdminRole() {
-        User user = getCurrentUser();
-        if (user.getRole() != Role.ADMIN) {
-            throw new ForbiddenException("Only ADMIN users can perform this operation");
-        }
-    }
+    @Autowired
+    private PaginationConfig paginationConfig;
 
-    @Transactional
-    public OrderDTO placeOrder(OrderDTO orderDTO) {
-        validateCustomerRole();
+    @Autowired
+    private TransactionRetry transactionRetry;
 
-        User user = getCurrentUser();
+    @Autowired
+    private OrderIntake orderIntake;
 
+    @Autowired
+    private OrderOutbox orderOutbox;
+
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public OrderDTO placeOrder(OrderDTO orderDTO) {
+        AuthenticatedUser user = currentUser.get();
+        return transactionRetry.execute("placeOrder", () -> createOrder(orderDTO, user));
+    }
+
+    private OrderDTO createOrder(OrderDTO orderDTO, AuthenticatedUser user) {
         Order order = new Order();
-        order.setUser(user);
+        // Reference only: the id is all the insert needs, so users is not queried
+        order.setUser(userRepository.getReferenceById(user.getId()));
         order.setStatus(OrderStatus.CREATED);
 
+        // stock, one conditional update per product
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        orderDTO.getOrderItems().forEach(itemDTO -> quantities.merge(itemDTO.getProductId(), itemDTO.getQuantity(), Integer::sum));
+        Map<Long, Product> products = inventoryService.reserve(quantities);
+
         // order
         List<OrderItem> orderItems = orderDTO.getOrderItems()
                 .stream()
                 .map(itemDTO -> {
-                    Product product = productRepository.findById(itemDTO.getProductId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + itemDTO.getProductId()));
-
-                    // stock availability
-                    if (product.getStock() < itemDTO.getQuantity()) {
-                        throw new IllegalArgumentException("Insufficient stock for : " + product.getName());
-                    }
-
-                    // Reduce stock
-                    product.setStock(product.getStock() - itemDTO.getQuantity());
-                    productRepository.save(product);
+                    Product product = products.get(itemDTO.getProductId());
 
                     OrderItem orderItem = new OrderItem();
                     orderItem.setOrder(order);
@@ -99,56 +111,89 @@ public class OrderService {
         order.setTotalAmount(totalAmount);
 
         Order savedOrder = orderRepository.save(order);
-        return convertToDTO(savedOrder);
+        orderOutbox.append(List.of(orderOutbox.created(savedOrder)));
+        eventPublisher.publishEvent(new ProductsChangedEvent(Set.copyOf(products.keySet())));
+        eventPublisher.publishEvent(new ProductsSoldEvent(quantities));
+        return convertToDTO(savedOrder, user.getId(), user.getUsername());
     }
 
     //get
-    public List<OrderDTO> getMyOrders() {
-        validateCustomerRole();
-
-        User user = getCurrentUser();
-        return orderRepository.findByUserId(user.getId())
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public CursorPage<OrderDTO> getMyOrders(String cursor, Integer size, boolean includeTotal) {
+        AuthenticatedUser user = currentUser.get();
+        long afterId = CursorPage.decodeCursor(cursor);
+        int pageSize = paginationConfig.resolveSize(size);
+
+        CursorPage<OrderRow> page = CursorPage.of(
+                orderRepository.findRowsByUserIdAfter(user.getId(), afterId, Limit.of(pageSize + 1)),
+                pageSize,
+                OrderRow::id,
+                Function.identity(),
+                includeTotal ? orderRepository.countByUserId(user.getId()) : null
+        );
+        return page.withItems(toDTOs(page.getItems()));
     }
 
-    public List<OrderDTO> getAllOrders() {
-        validateAdminRole();
-
-        return orderRepository.findAll()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN')")
+    public CursorPage<OrderDTO> getAllOrders(String cursor, Integer size, boolean includeTotal) {
+        long afterId = CursorPage.decodeCursor(cursor);
+        int pageSize = paginationConfig.resolveSize(size);
+
+        CursorPage<OrderRow> page = CursorPage.of(
+                orderRepository.findRowsAfter(afterId, Limit.of(pageSize + 1)),
+                pageSize,
+                OrderRow::id,
+                Function.identity(),
+                includeTotal ? orderRepository.count() : null
+        );
+        return page.withItems(toDTOs(page.getItems()));
     }
 
+    @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id) {
-        User user = getCurrentUser();
-        Order order = orderRepository.findById(id)
+        AuthenticatedUser user = currentUser.get();
+        // Checked before the database: a queued order leaves the intake only after its row is committed
+        OrderDTO queued = orderIntake.findPending(id).orElse(null);
+        if (queued != null) {
+            checkOwner(user, queued.getUserId());
+            return queued;
+        }
+
+        OrderRow order = orderRepository.findRowById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        checkOwner(user, order.userId());
+
+        return toDTOs(List.of(order)).get(0);
+    }
 
-        // Customer limit
-        if (user.getRole() == Role.CUSTOMER && !order.getUser().getId().equals(user.getId())) {
+    // Customer limit
+    private void checkOwner(AuthenticatedUser user, Long ownerId) {
+        if (user.hasRole(Role.CUSTOMER) && !ownerId.equals(user.getId())) {
             throw new ForbiddenException("You can only view your own orders");
         }
-
-        return convertToDTO(order);
     }
 
-    @Transactional
+    // Each attempt re-reads the order, so the transition is validated against the status that wins
+    @PreAuthorize("hasRole('ADMIN')")
     public OrderDTO updateOrderStatus(Long id, OrderStatus newStatus) {
-        validateAdminRole();
+        return transactionRetry.execute("updateOrderStatus", () -> changeStatus(id, newStatus));
+    }
 
+    private OrderDTO changeStatus(Long id, OrderStatus newStatus) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
 
         // Validate
-        validateStatusTransition(order.getStatus(), newStatus);
+        OrderStatus previousStatus = order.getStatus();
+        validateStatusTransition(previousStatus, newStatus);
 
         order.setStatus(newStatus);
-        Order updatedOrder = orderRepository.save(order);
+        orderRepository.saveAndFlush(order);
+        orderOutbox.append(List.of(orderOutbox.statusChanged(order, previousStatus)));
 
-        return convertToDTO(updatedOrder);
+        return toDTOs(List.of(orderRepository.findRowById(id).orElseThrow())).get(0);
     }
 
     private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
@@ -156,16 +201,48 @@ public class OrderService {
             throw new IllegalArgumentException("Cannot update status of cancelled order");
         }
 
+        if (currentStatus == OrderStatus.REJECTED) {
+            throw new IllegalArgumentException("Cannot update status of rejected order");
+        }
+
+        if (newStatus == OrderStatus.PENDING || newStatus == OrderStatus.REJECTED) {
+            throw new IllegalArgumentException("Status " + newStatus + " is set by order intake only");
+        }
+
         if (currentStatus == OrderStatus.CONFIRMED && newStatus == OrderStatus.CREATED) {
             throw new IllegalArgumentException("Cannot reverse to previous status");
         }
     }
 
-    private OrderDTO convertToDTO(Order order) {
+    // Read model: headers and lines come from two flat projections, whatever the number of orders
+    private List<OrderDTO> toDTOs(List<OrderRow> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, List<OrderItemDTO>> itemsByOrder = orderRepository.findItemRowsByOrderIds(
+                        orders.stream().map(OrderRow::id).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId, Collectors.mapping(
+                        row -> new OrderItemDTO(row.id(), row.productId(), row.productName(), row.quantity(), row.price()),
+                        Collectors.toList())));
+
+        return orders.stream()
+                .map(row -> new OrderDTO(
+                        row.id(),
+                        row.userId(),
+                        row.username(),
+                        itemsByOrder.getOrDefault(row.id(), new ArrayList<>()),
+                        row.totalAmount(),
+                        row.status()))
+                .collect(Collectors.toList());
+    }
+
+    private OrderDTO convertToDTO(Order order, Long userId, String username) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
-        dto.setUserId(order.getUser().getId());
-        dto.setUsername(order.getUser().getUsername());
+        dto.setUserId(userId);
+        dto.setUsername(username);
         dto.setTotalAmount(order.getTotalAmount());
         dto.setStatus(order.getStatus());
 
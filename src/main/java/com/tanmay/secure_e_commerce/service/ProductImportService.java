@@ -0,0 +1,328 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.dto.ImportReport;
+import com.tanmay.secure_e_commerce.dto.ImportRowError;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductImportRow;
+import com.tanmay.secure_e_commerce.entity.Category;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.enums.DataFormat;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import com.tanmay.secure_e_commerce.repository.CategoryRepository;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk upsert of products keyed by SKU from a streamed CSV or NDJSON body. Rows are validated
+ * one by one and written in chunks of {@code import.chunk-size}, each chunk in its own
+ * transaction, so a bad row or a failed chunk is reported without stopping the run. A chunk that
+ * races a checkout on the same products is re-run from a fresh read; rows whose product changed
+ * in between are reported instead of writing their stock over the checkout.
+ */
+@Service
+public class ProductImportService {
+
+    private static final List<String> CSV_COLUMNS = List.of("sku", "name", "description", "price", "stock", "category");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionRetry transactionRetry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${import.max-errors:1000}")
+    private int maxErrors;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportReport importProducts(DataFormat format, InputStream in) throws IOException {
+        long started = System.nanoTime();
+        ImportReport report = new ImportReport();
+
+        Map<String, Long> categoryIds = categoryRepository.findAll()
+                .stream()
+                .collect(Collectors.toMap(Category::getName, Category::getId));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        int[] columns = null;
+        if (format == DataFormat.CSV) {
+            columns = csvColumns(reader.readLine());
+            lineNumber++;
+        }
+
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long rowLine = ++lineNumber;
+            if (format == DataFormat.CSV) {
+                // A quoted field may span lines
+                while (hasOpenQuote(line)) {
+                    String next = reader.readLine();
+                    if (next == null) {
+                        break;
+                    }
+                    line = line + "\n" + next;
+                    lineNumber++;
+                }
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+
+            report.setTotal(report.getTotal() + 1);
+            ProductImportRow row = null;
+            try {
+                row = format == DataFormat.CSV ? parseCsv(line, columns) : objectMapper.readValue(line, ProductImportRow.class);
+                chunk.add(new ImportLine(rowLine, toDTO(row, categoryIds)));
+            } catch (IllegalArgumentException | JacksonException e) {
+                report.reject(rowLine, row != null ? row.sku() : null, e.getMessage(), maxErrors);
+            }
+
+            if (chunk.size() >= chunkSize) {
+                writeChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        writeChunk(chunk, report);
+
+        report.setDurationMillis((System.nanoTime() - started) / 1_000_000);
+        return report;
+    }
+
+    private void writeChunk(List<ImportLine> chunk, ImportReport report) {
+        List<ImportLine> accepted = new ArrayList<>(chunk.size());
+        Set<String> skus = new HashSet<>();
+        for (ImportLine line : chunk) {
+            if (skus.add(line.product().getSku())) {
+                accepted.add(line);
+            } else {
+                report.reject(line.number(), line.product().getSku(), "Duplicate SKU in the same chunk", maxErrors);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> readVersions = new HashMap<>();
+        try {
+            ChunkResult result = transactionRetry.execute("importChunk", () -> upsert(accepted, skus, readVersions));
+            report.setCreated(report.getCreated() + result.created());
+            report.setUpdated(report.getUpdated() + result.updated());
+            report.setUnchanged(report.getUnchanged() + result.unchanged());
+            result.rejected().forEach(error -> report.reject(error.line(), error.sku(), error.message(), maxErrors));
+        } catch (RuntimeException e) {
+            String message = "Chunk rolled back: " + e.getMessage();
+            accepted.forEach(line -> report.reject(line.number(), line.product().getSku(), message, maxErrors));
+        }
+    }
+
+    // readVersions keeps the version each product had on the chunk's first attempt
+    private ChunkResult upsert(List<ImportLine> lines, Set<String> skus, Map<String, Long> readVersions) {
+        Map<String, Product> existing = productRepository.findBySkuIn(skus)
+                .stream()
+                .collect(Collectors.toMap(Product::getSku, Function.identity()));
+
+        int created = 0;
+        int updated = 0;
+        int unchanged = 0;
+        List<ImportRowError> rejected = new ArrayList<>();
+        Set<Long> changedIds = new HashSet<>();
+
+        for (ImportLine line : lines) {
+            ProductDTO dto = line.product();
+            Product product = existing.get(dto.getSku());
+
+            if (product == null) {
+                product = new Product();
+                product.setSku(dto.getSku());
+                apply(product, dto);
+                productRepository.save(product);
+                created++;
+            } else if (sameAs(product, dto)) {
+                unchanged++;
+                continue;
+            } else if (changedSinceFirstRead(product, readVersions)) {
+                rejected.add(new ImportRowError(line.number(), dto.getSku(), "Product was modified during the import, re-submit the row"));
+                continue;
+            } else if (product.isFlashSale() && !product.getStock().equals(dto.getStock())) {
+                rejected.add(new ImportRowError(line.number(), dto.getSku(), "Stock cannot be changed while a flash sale is running"));
+                continue;
+            } else {
+                // Managed entity: the changed columns go out in the chunk's update batch on commit
+                apply(product, dto);
+                updated++;
+            }
+            changedIds.add(product.getId());
+        }
+
+        if (!changedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(changedIds));
+        }
+        return new ChunkResult(created, updated, unchanged, rejected);
+    }
+
+    private void apply(Product product, ProductDTO dto) {
+        product.setName(dto.getName());
+        product.setDescription(dto.getDescription());
+        product.setPrice(dto.getPrice());
+        product.setStock(dto.getStock());
+        // Reference only, the id was resolved from the category map
+        product.setCategory(categoryRepository.getReferenceById(dto.getCategoryId()));
+    }
+
+    private static boolean changedSinceFirstRead(Product product, Map<String, Long> readVersions) {
+        Long firstRead = readVersions.putIfAbsent(product.getSku(), product.getVersion());
+        return firstRead != null && !firstRead.equals(product.getVersion());
+    }
+
+    private boolean sameAs(Product product, ProductDTO dto) {
+        return product.getName().equals(dto.getName())
+                && Objects.equals(product.getDescription(), dto.getDescription())
+                && product.getPrice().compareTo(dto.getPrice()) == 0
+                && product.getStock().equals(dto.getStock())
+                && product.getCategory() != null
+                && product.getCategory().getId().equals(dto.getCategoryId());
+    }
+
+    private ProductDTO toDTO(ProductImportRow row, Map<String, Long> categoryIds) {
+        if (row.sku() == null || row.sku().isBlank()) {
+            throw new IllegalArgumentException("SKU required");
+        }
+        Long categoryId = categoryIds.get(row.category());
+        if (categoryId == null) {
+            throw new IllegalArgumentException("Category not found with name: " + row.category());
+        }
+
+        ProductDTO dto = new ProductDTO(null, row.sku().trim(), row.name(), row.description(), row.price(), row.stock(),
+                categoryId, row.category(), null, null);
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return dto;
+    }
+
+    // Maps each expected column to its position in the header, so column order is free
+    private int[] csvColumns(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import needs a header row: " + String.join(",", CSV_COLUMNS));
+        }
+        List<String> names = splitCsv(header).stream().map(name -> name.trim().toLowerCase()).toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0 && !CSV_COLUMNS.get(i).equals("description")) {
+                throw new IllegalArgumentException("CSV header is missing column: " + CSV_COLUMNS.get(i));
+            }
+        }
+        return columns;
+    }
+
+    private ProductImportRow parseCsv(String line, int[] columns) {
+        List<String> fields = splitCsv(line);
+        Function<Integer, String> field = column -> {
+            int index = columns[column];
+            if (index < 0 || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        };
+
+        String price = field.apply(3);
+        String stock = field.apply(4);
+        try {
+            return new ProductImportRow(field.apply(0), field.apply(1), field.apply(2),
+                    price == null ? null : new BigDecimal(price.trim()),
+                    stock == null ? null : Integer.valueOf(stock.trim()),
+                    field.apply(5));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in price or stock");
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean hasOpenQuote(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    private record ImportLine(long number, ProductDTO product) {
+    }
+
+    private record ChunkResult(int created, int updated, int unchanged, List<ImportRowError> rejected) {
+    }
+}
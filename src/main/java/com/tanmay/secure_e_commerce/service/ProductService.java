@@ -1,22 +1,34 @@
 package com.tanmay.secure_e_commerce.service;
 
+import com.tanmay.secure_e_commerce.cache.ProductCatalogCache;
+import com.tanmay.secure_e_commerce.config.PaginationConfig;
+import com.tanmay.secure_e_commerce.dto.CursorPage;
+import com.tanmay.secure_e_commerce.dto.FacetCounts;
 import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductSearchResult;
+import com.tanmay.secure_e_commerce.dto.ProductSuggestion;
 import com.tanmay.secure_e_commerce.entity.Category;
 import com.tanmay.secure_e_commerce.entity.Product;
-import com.tanmay.secure_e_commerce.entity.User;
-import com.tanmay.secure_e_commerce.enums.Role;
-import com.tanmay.secure_e_commerce.exception.ForbiddenException;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import com.tanmay.secure_e_commerce.exception.ConflictException;
 import com.tanmay.secure_e_commerce.exception.ResourceNotFoundException;
 import com.tanmay.secure_e_commerce.repository.CategoryRepository;
 import com.tanmay.secure_e_commerce.repository.ProductRepository;
-import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.search.FacetFilter;
+import com.tanmay.secure_e_commerce.search.ProductFacetIndex;
+import com.tanmay.secure_e_commerce.search.ProductSearchIndex;
+import com.tanmay.secure_e_commerce.search.ProductSuggestIndex;
+import com.tanmay.secure_e_commerce.search.SearchCriteria;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class ProductService {
@@ -28,25 +40,34 @@ public class ProductService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private ProductCatalogCache catalogCache;
 
-    private void validateAdminRole() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userDetailsService.getUserByUsername(username);
+    @Autowired
+    private ProductSearchIndex searchIndex;
 
-        if (user.getRole() != Role.ADMIN) {
-            throw new ForbiddenException("Only ADMIN users can perform this operation");
-        }
-    }
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+
+    @Autowired
+    private PaginationConfig paginationConfig;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionRetry transactionRetry;
 
     @Transactional
+    @PreAuthorize("hasRole('ADMIN')")
     public ProductDTO createProduct(ProductDTO productDTO) {
-        validateAdminRole();
-
         Category category = categoryRepository.findById(productDTO.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + productDTO.getCategoryId()));
 
         Product product = new Product();
+        product.setSku(productDTO.getSku());
         product.setName(productDTO.getName());
         product.setDescription(productDTO.getDescription());
         product.setPrice(productDTO.getPrice());
@@ -54,70 +75,131 @@ public class ProductService {
         product.setCategory(category);
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(savedProduct.getId()));
         return convertToDTO(savedProduct);
     }
 
-    @Transactional
+    @PreAuthorize("hasRole('ADMIN')")
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
-        validateAdminRole();
+        // Without a version the stock sent is absolute from an unknown read, so a re-run would overwrite the write that beat it
+        if (productDTO.getVersion() == null) {
+            return transactionRetry.executeOnce("updateProduct", () -> applyUpdate(id, productDTO));
+        }
+        return transactionRetry.execute("updateProduct", () -> applyUpdate(id, productDTO));
+    }
 
+    private ProductDTO applyUpdate(Long id, ProductDTO productDTO) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
+        // A client that sent the version it read gets a conflict instead of overwriting a newer write
+        if (productDTO.getVersion() != null && !productDTO.getVersion().equals(product.getVersion())) {
+            throw new ConflictException("Product " + id + " was modified, current version is " + product.getVersion());
+        }
+
         Category category = categoryRepository.findById(productDTO.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + productDTO.getCategoryId()));
 
+        // The flash-sale counter owns the stock until the sale ends
+        if (product.isFlashSale() && !product.getStock().equals(productDTO.getStock())) {
+            throw new IllegalArgumentException("Stock cannot be changed while a flash sale is running");
+        }
+
+        // The SKU is the import key, so an update that leaves it out keeps the current one
+        if (productDTO.getSku() != null) {
+            product.setSku(productDTO.getSku());
+        }
         product.setName(productDTO.getName());
         product.setDescription(productDTO.getDescription());
         product.setPrice(productDTO.getPrice());
         product.setStock(productDTO.getStock());
         product.setCategory(category);
 
-        Product updatedProduct = productRepository.save(product);
+        Product updatedProduct = productRepository.saveAndFlush(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(id));
         return convertToDTO(updatedProduct);
     }
 
     @Transactional
+    @PreAuthorize("hasRole('ADMIN')")
     public void deleteProduct(Long id) {
-        validateAdminRole();
-
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(id));
     }
 
-    public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<ProductDTO> getProducts(String cursor, Integer size, boolean includeTotal, FacetFilter filter) {
+        long afterId = CursorPage.decodeCursor(cursor);
+        int pageSize = paginationConfig.resolveSize(size);
+
+        // Filtered pages: ids and the cursor come from the facet bitmaps, rows by primary key.
+        // A product deleted since the index was read only drops out of its page
+        if (!filter.isEmpty()) {
+            CursorPage<Long> ids = CursorPage.of(
+                    facetIndex.productIds(filter, afterId, pageSize + 1),
+                    pageSize,
+                    Function.identity(),
+                    Function.identity(),
+                    includeTotal ? facetIndex.count(filter) : null
+            );
+            return ids.withItems(ids.getItems().isEmpty() ? List.of() : productRepository.findDTOsByIdIn(ids.getItems()));
+        }
+
+        return catalogCache.getList("page:" + afterId + ":" + pageSize + ":" + includeTotal, () -> CursorPage.of(
+                productRepository.findDTOsAfter(afterId, Limit.of(pageSize + 1)),
+                pageSize,
+                ProductDTO::getId,
+                Function.identity(),
+                includeTotal ? productRepository.count() : null
+        ));
     }
 
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return convertToDTO(product);
+        return catalogCache.getProduct(id, () -> productRepository.findDTOById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id)));
+    }
+
+    public List<ProductSuggestion> suggestProducts(String query, int limit) {
+        return suggestIndex.suggest(query, limit);
+    }
+
+    public FacetCounts getFacets(FacetFilter filter) {
+        return facetIndex.counts(filter);
     }
 
     public List<ProductDTO> getProductsByCategory(Long categoryId) {
-        if (!categoryRepository.existsById(categoryId)) {
-            throw new ResourceNotFoundException("Category not found with id: " + categoryId);
+        return catalogCache.getList("category:" + categoryId, () -> {
+            if (!categoryRepository.existsById(categoryId)) {
+                throw new ResourceNotFoundException("Category not found with id: " + categoryId);
+            }
+            return productRepository.findDTOsByCategoryId(categoryId);
+        });
+    }
+
+    public ProductSearchResult searchProducts(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                              boolean inStock, int page, Integer size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
         }
-        return productRepository.findByCategoryId(categoryId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return searchIndex.search(new SearchCriteria(
+                query, categoryId, minPrice, maxPrice, inStock, page, paginationConfig.resolveSize(size)));
     }
 
     private ProductDTO convertToDTO(Product product) {
         ProductDTO dto = new ProductDTO();
 
         dto.setId(product.getId());
+        dto.setSku(product.getSku());
         dto.setName(product.getName());
         dto.setDescription(product.getDescription());
         dto.setPrice(product.getPrice());
         dto.setStock(product.getStock());
         dto.setCategoryId(product.getCategory().getId());
         dto.setCategoryName(product.getCategory().getName());
+        dto.setUpdatedAt(product.getUpdatedAt());
+        dto.setVersion(product.getVersion());
         return dto;
     }
 }
\ No newline at end of file
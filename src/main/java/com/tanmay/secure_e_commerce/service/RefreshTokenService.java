@@ -0,0 +1,93 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.entity.RefreshToken;
+import com.tanmay.secure_e_commerce.entity.User;
+import com.tanmay.secure_e_commerce.exception.UnauthorizedException;
+import com.tanmay.secure_e_commerce.repository.RefreshTokenRepository;
+import com.tanmay.secure_e_commerce.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Opaque refresh tokens that are rotated on every use: a refresh marks the presented token used
+ * and issues a new one in the same family. Presenting a used token again means it was copied, so
+ * the whole family is revoked and its holder has to log in again.
+ */
+@Service
+public class RefreshTokenService {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.refresh.ttl-seconds:1209600}")
+    private long ttlSeconds;
+
+    private final SecureRandom random = new SecureRandom();
+
+    public record Rotation(String refreshToken, User user) {
+    }
+
+    // A new family: called once per login
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userRepository.getReferenceById(userId), UUID.randomUUID().toString());
+    }
+
+    // The revocation of a reused family must commit even though the refresh fails
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashWithUser(hash(refreshToken))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+
+        Instant now = Instant.now();
+        if (current.isRevoked() || !current.getExpiresAt().isAfter(now)) {
+            throw new UnauthorizedException("Refresh token expired or revoked");
+        }
+        if (refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new UnauthorizedException("Refresh token already used, please log in again");
+        }
+
+        return new Rotation(issue(current.getUser(), current.getFamilyId()), current.getUser());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(null, hash(token), user, familyId,
+                Instant.now().plusSeconds(ttlSeconds), null, false));
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.exception.ConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs work in its own transaction and re-runs it from the start when it loses a concurrency
+ * race: a stale {@code @Version} at flush, a deadlock or a lock timeout. Attempts are bounded
+ * and spaced by exponential backoff with full jitter, so contending writers spread out instead
+ * of colliding again. Once attempts run out the caller gets a {@link ConflictException} (409).
+ * Work that must not be re-applied over a write it never saw uses {@link #executeOnce}, which
+ * answers the first lost race with the 409 instead.
+ * Published as {@code transaction.conflicts}, {@code transaction.retries} and
+ * {@code transaction.retries.exhausted}, tagged with the operation name.
+ */
+@Component
+public class TransactionRetry {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${transaction.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${transaction.retry.initial-backoff-ms:5}")
+    private long initialBackoffMs;
+
+    @Value("${transaction.retry.max-backoff-ms:100}")
+    private long maxBackoffMs;
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        // Inside a caller's transaction a retry would reuse its rolled-back session, so the caller owns the retry
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("transaction.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("transaction.retries.exhausted", "operation", operation).increment();
+                    throw new ConflictException("Concurrent update, please retry: " + operation);
+                }
+                meterRegistry.counter("transaction.retries", "operation", operation).increment();
+                backOff(attempt, operation);
+            }
+        }
+    }
+
+    public <T> T executeOnce(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } catch (ConcurrencyFailureException e) {
+            meterRegistry.counter("transaction.conflicts", "operation", operation).increment();
+            throw new ConflictException("Concurrent update, please retry: " + operation);
+        }
+    }
+
+    private void backOff(int attempt, String operation) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Concurrent update, please retry: " + operation);
+        }
+    }
+}
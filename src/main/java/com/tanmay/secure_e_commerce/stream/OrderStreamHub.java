@@ -0,0 +1,271 @@
+package com.tanmay.secure_e_commerce.stream;
+
+import com.tanmay.secure_e_commerce.entity.OrderEventLog;
+import com.tanmay.secure_e_commerce.enums.Role;
+import com.tanmay.secure_e_commerce.exception.ServiceUnavailableException;
+import com.tanmay.secure_e_commerce.repository.OrderEventLogRepository;
+import com.tanmay.secure_e_commerce.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fan-out of relayed order events to {@code /api/orders/stream} subscribers: admins get every
+ * order, customers their own. Events are read from {@code order_event_log}, which the relay on
+ * any instance appends to, so a stream sees every order whichever instance relayed it. The log is
+ * polled by id; ids skipped by a poll are re-read for {@code orders.stream.gap-timeout-ms} in
+ * case a relay committed them late. An idle connection is only its {@link SseEmitter} and a small
+ * buffer; no thread is parked on it. Each event is rendered once and queued to every matching
+ * subscriber, and a subscriber with queued frames is drained by a virtual thread, so a slow
+ * socket blocks nobody else. A subscriber whose buffer overflows is disconnected; after
+ * reconnecting it catches up from the REST endpoints.
+ * Published as {@code orders.stream.subscribers}, {@code orders.stream.events} and
+ * {@code orders.stream.evicted}.
+ */
+@Component
+public class OrderStreamHub {
+
+    private static final int POLL_LIMIT = 1_000;
+
+    // A jump in ids larger than this (e.g. a moved sequence) is not tracked id by id
+    private static final int MAX_GAP = 10_000;
+
+    @Autowired
+    private OrderEventLogRepository eventLogRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.stream.max-subscribers:50000}")
+    private int maxSubscribers;
+
+    @Value("${orders.stream.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${orders.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${orders.stream.gap-timeout-ms:30000}")
+    private long gapTimeoutMillis;
+
+    @Value("${orders.stream.log-retention-ms:600000}")
+    private long logRetentionMillis;
+
+    private final Set<Subscriber> admins = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> customers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Only touched by poll(), which never overlaps itself
+    private long lastId = -1;
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    private Counter events;
+    private Counter evicted;
+
+    @PostConstruct
+    void init() {
+        meterRegistry.gauge("orders.stream.subscribers", subscribers);
+        events = meterRegistry.counter("orders.stream.events");
+        evicted = meterRegistry.counter("orders.stream.evicted");
+    }
+
+    // Before the web server stops, which would otherwise time out every open stream
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        admins.forEach(this::close);
+        customers.values().forEach(set -> set.forEach(this::close));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdown();
+    }
+
+    public SseEmitter subscribe(AuthenticatedUser user) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ServiceUnavailableException("Too many order streams open, please retry");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, user.hasRole(Role.ADMIN) ? null : user.getId());
+        if (subscriber.userId == null) {
+            admins.add(subscriber);
+        } else {
+            customers.computeIfAbsent(subscriber.userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        emitter.onCompletion(() -> remove(subscriber));
+        // Completing here ends the response cleanly instead of raising AsyncRequestTimeoutException
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> remove(subscriber));
+
+        // Sends the headers now, so the client sees the stream open before the first event
+        subscriber.offer(SseEmitter.event().comment("connected").build());
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stream.poll-interval-ms:100}")
+    public void poll() {
+        // Streams opened from now on start with the events logged from now on
+        if (lastId < 0) {
+            lastId = eventLogRepository.findMaxId();
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (!gaps.isEmpty()) {
+            for (OrderEventLog entry : eventLogRepository.findByIdInOrderByIdAsc(List.copyOf(gaps.keySet()))) {
+                gaps.remove(entry.getId());
+                push(entry);
+            }
+            gaps.values().removeIf(noticed -> now - noticed > gapTimeoutMillis * 1_000_000);
+        }
+
+        List<OrderEventLog> entries;
+        do {
+            entries = eventLogRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(POLL_LIMIT));
+            for (OrderEventLog entry : entries) {
+                if (entry.getId() - lastId <= MAX_GAP) {
+                    for (long missing = lastId + 1; missing < entry.getId(); missing++) {
+                        gaps.put(missing, now);
+                    }
+                }
+                lastId = entry.getId();
+                push(entry);
+            }
+        } while (entries.size() == POLL_LIMIT);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stream.log-purge-interval-ms:60000}")
+    public void purgeLog() {
+        eventLogRepository.deleteLoggedBefore(Instant.now().minusMillis(logRetentionMillis));
+    }
+
+    private void push(OrderEventLog entry) {
+        long userId = objectMapper.readTree(entry.getPayload()).path("userId").asLong();
+        Set<Subscriber> owners = customers.get(userId);
+        if (admins.isEmpty() && owners == null) {
+            return;
+        }
+
+        Set<DataWithMediaType> frame = SseEmitter.event()
+                .id(Long.toString(entry.getId()))
+                .name(entry.getType().name())
+                .data(entry.getPayload(), MediaType.APPLICATION_JSON)
+                .build();
+        admins.forEach(subscriber -> subscriber.offer(frame));
+        if (owners != null) {
+            owners.forEach(subscriber -> subscriber.offer(frame));
+        }
+        events.increment();
+    }
+
+    // Keeps proxies from closing idle streams and finds clients that went away without a FIN
+    @Scheduled(fixedDelayString = "${orders.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> frame = SseEmitter.event().comment("heartbeat").build();
+        admins.forEach(subscriber -> subscriber.offer(frame));
+        customers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(frame)));
+    }
+
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscriber.userId == null) {
+            admins.remove(subscriber);
+        } else {
+            customers.computeIfPresent(subscriber.userId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        subscribers.decrementAndGet();
+    }
+
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        // complete() waits for a send in progress, which may be stuck on the slow socket
+        senders.execute(subscriber.emitter::complete);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final BlockingQueue<Set<DataWithMediaType>> pending = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Long userId) {
+            this.emitter = emitter;
+            this.userId = userId;
+        }
+
+        void offer(Set<DataWithMediaType> frame) {
+            if (!pending.offer(frame)) {
+                if (!removed.get()) {
+                    evicted.increment();
+                }
+                close(this);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    Set<DataWithMediaType> frame;
+                    while ((frame = pending.poll()) != null) {
+                        emitter.send(frame);
+                    }
+                    draining.set(false);
+                } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                draining.set(false);
+                pending.clear();
+                remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.dto.AuthRequest;
+import com.tanmay.secure_e_commerce.enums.Role;
+import com.tanmay.secure_e_commerce.service.AuthService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins/sec, each a BCrypt check, against refreshes/sec, each a token lookup and rotation,
+ * through {@link AuthService} on the in-memory database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class AuthBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+    private AuthRequest credentials;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        authService = context.getBean(AuthService.class);
+        authService.register("bench", "bench-password", "bench@example.com", Role.CUSTOMER);
+        credentials = new AuthRequest("bench", "bench-password");
+        refreshToken = authService.login(credentials).getRefreshToken();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String login() {
+        return authService.login(credentials).getToken();
+    }
+
+    // Each refresh spends the previous token, as a client would
+    @Benchmark
+    public String refresh() {
+        var response = authService.refresh(refreshToken);
+        refreshToken = response.getRefreshToken();
+        return response.getToken();
+    }
+}
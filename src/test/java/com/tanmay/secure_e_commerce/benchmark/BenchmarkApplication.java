@@ -0,0 +1,28 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.SecureECommerceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(new Class<?>[0], properties);
+    }
+
+    static ConfigurableApplicationContext start(Class<?>[] extraSources, String... properties) {
+        return new SpringApplicationBuilder(SecureECommerceApplication.class)
+                .sources(extraSources)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+    }
+}
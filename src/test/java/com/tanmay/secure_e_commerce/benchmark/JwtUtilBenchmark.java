@@ -0,0 +1,66 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.security.JwtUtil;
+import com.tanmay.secure_e_commerce.security.TokenClaims;
+import com.tanmay.secure_e_commerce.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and validation throughput: a full signature check per token versus
+ * the verified-token cache the filter consults first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "p9RkA4ZxQ7N2wLhM5fJdC6S0YB8E1tHqVnUsPKeoWiGr");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600000L);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(verifiedTokenCache, "maxSize", 10000);
+
+        userDetails = new User("customer1", "", List.of());
+        token = jwtUtil.generateToken(userDetails, "CUSTOMER");
+        verifiedTokenCache.put(token, userDetails, jwtUtil.parseToken(token).expiresAt());
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(userDetails, "CUSTOMER");
+    }
+
+    @Benchmark
+    public TokenClaims parse() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+
+    @Benchmark
+    public UserDetails cachedVerify() {
+        return verifiedTokenCache.get(token);
+    }
+}
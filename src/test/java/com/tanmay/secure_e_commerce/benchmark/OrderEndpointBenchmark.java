@@ -0,0 +1,62 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests/sec on GET /api/orders/my-orders with claims-based authentication
+ * ({@code jwt.stateless=true}) versus a users lookup per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class OrderEndpointBenchmark {
+
+    @Param({"true", "false"})
+    private boolean stateless;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("jwt.stateless=" + stateless);
+
+        CustomUserDetailsService userDetailsService = context.getBean(CustomUserDetailsService.class);
+        String token = context.getBean(JwtUtil.class)
+                .generateToken(userDetailsService.loadUserByUsername("customer1"), "CUSTOMER");
+
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + BenchmarkApplication.port(context) + "/api/orders/my-orders"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int myOrders() throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
@@ -0,0 +1,158 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.enums.OrderEventType;
+import com.tanmay.secure_e_commerce.event.OrderLifecycleEvent;
+import com.tanmay.secure_e_commerce.outbox.OrderEventLogSink;
+import com.tanmay.secure_e_commerce.security.AuthenticatedUser;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.security.JwtUtil;
+import com.tanmay.secure_e_commerce.stream.OrderStreamHub;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order streams held open by {@code connections} idle clients: prints the heap each connection
+ * costs once they are all subscribed, then measures how long one order event takes from the event
+ * log to every client, with the log polled every millisecond. The clients are bare non-blocking sockets read by one selector thread, so nearly all of
+ * the heap measured is the server's. Needs {@code ulimit -n} above twice the connection count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OrderStreamBenchmark {
+
+    private static final byte[] MARKER = "event:ORDER_STATUS_CHANGED".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"10000"})
+    public int connections;
+
+    private ConfigurableApplicationContext context;
+    private Selector selector;
+    private Thread reader;
+    private final List<SocketChannel> channels = new ArrayList<>();
+    private final AtomicLong delivered = new AtomicLong();
+    private long customerId;
+    private OrderEventLogSink eventLog;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start(
+                "server.tomcat.max-connections=" + (connections + 1_000),
+                "orders.stream.max-subscribers=" + connections,
+                "orders.stream.timeout-ms=0",
+                "orders.stream.poll-interval-ms=1");
+        eventLog = context.getBean(OrderEventLogSink.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        AuthenticatedUser customer = context.getBean(CustomUserDetailsService.class).loadUserByUsername("customer1");
+        customerId = customer.getId();
+        String token = context.getBean(JwtUtil.class).generateToken(customer, "CUSTOMER");
+        byte[] request = ("GET /api/orders/stream HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n"
+                + "Authorization: Bearer " + token + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        OrderStreamHub hub = context.getBean(OrderStreamHub.class);
+        long heapBefore = usedHeap();
+
+        selector = Selector.open();
+        InetSocketAddress server = new InetSocketAddress("localhost", BenchmarkApplication.port(context));
+        for (int i = 0; i < connections; i++) {
+            SocketChannel channel = SocketChannel.open(server);
+            channel.write(ByteBuffer.wrap(request));
+            channel.configureBlocking(false);
+            channels.add(channel);
+            if (i % 1_000 == 999) {
+                while (hub.subscriberCount() < i + 1) {
+                    Thread.sleep(10);
+                }
+            }
+        }
+        while (hub.subscriberCount() < connections) {
+            Thread.sleep(10);
+        }
+
+        long heapAfter = usedHeap();
+        System.out.printf("%nHeap per open stream: %d bytes (%d streams)%n", (heapAfter - heapBefore) / connections, connections);
+
+        for (SocketChannel channel : channels) {
+            channel.register(selector, SelectionKey.OP_READ, new int[1]);
+        }
+        reader = Thread.ofPlatform().daemon().start(this::read);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.interrupt();
+        selector.close();
+        for (SocketChannel channel : channels) {
+            channel.close();
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public long fanOut() throws InterruptedException {
+        long target = delivered.get() + connections;
+        long id = jdbcTemplate.queryForObject("select nextval('outbox_events_seq')", Long.class);
+        eventLog.publish(List.of(new OrderLifecycleEvent(id, 0, id, OrderEventType.ORDER_STATUS_CHANGED,
+                "{\"orderId\":0,\"userId\":" + customerId + ",\"status\":\"CONFIRMED\"}", Instant.now())));
+        while (delivered.get() < target) {
+            Thread.onSpinWait();
+        }
+        return target;
+    }
+
+    // Counts marker occurrences per socket; the attachment carries a partial match across reads
+    private void read() {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                selector.select(100);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    int[] matched = (int[]) key.attachment();
+                    buffer.clear();
+                    if (((SocketChannel) key.channel()).read(buffer) < 0) {
+                        key.cancel();
+                        continue;
+                    }
+                    for (int i = 0; i < buffer.position(); i++) {
+                        byte b = buffer.get(i);
+                        matched[0] = b == MARKER[matched[0]] ? matched[0] + 1 : b == MARKER[0] ? 1 : 0;
+                        if (matched[0] == MARKER.length) {
+                            matched[0] = 0;
+                            delivered.incrementAndGet();
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Closed at teardown
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
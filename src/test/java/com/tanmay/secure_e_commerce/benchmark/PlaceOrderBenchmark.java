@@ -0,0 +1,103 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.inventory.FlashSaleInventory;
+import com.tanmay.secure_e_commerce.repository.OrderRepository;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders/sec from several threads that all buy the same few hot products, each order listing
+ * them in a random order, with the conditional row update or the flash-sale counters.
+ * Teardown fails the run if stock sold and stock left do not add up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class PlaceOrderBenchmark {
+
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    @Param({"1", "4"})
+    private int hotProducts;
+
+    @Param({"false", "true"})
+    private boolean flashSale;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private UserDetails customer;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        orderService = context.getBean(OrderService.class);
+        customer = context.getBean(CustomUserDetailsService.class).loadUserByUsername("customer1");
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        for (int i = 0; i < hotProducts; i++) {
+            productIds.add(productRepository.save(
+                    new Product(null, null, "Hot " + i, null, new BigDecimal("5.00"), INITIAL_STOCK, null, false, null, null)).getId());
+        }
+
+        if (flashSale) {
+            UserDetails admin = context.getBean(CustomUserDetailsService.class).loadUserByUsername("admin");
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+            productIds.forEach(context.getBean(FlashSaleInventory.class)::enable);
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        for (Long productId : productIds) {
+            int stock = jdbc.queryForObject("select stock from products where id = ?", Integer.class, productId);
+            int sold = jdbc.queryForObject("select coalesce(sum(quantity), 0) from order_items where product_id = ?", Integer.class, productId);
+            // Flash-sale stock not written back yet is still in the journal
+            int pending = jdbc.queryForObject("select coalesce(sum(quantity), 0) from stock_reservations where product_id = ?", Integer.class, productId);
+            if (stock - pending + sold != INITIAL_STOCK) {
+                throw new IllegalStateException("Product " + productId + ": stock " + stock + " - pending " + pending
+                        + " + sold " + sold + " != " + INITIAL_STOCK);
+            }
+        }
+        System.out.println("orders placed: " + context.getBean(OrderRepository.class).count());
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO placeOrder() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities()));
+
+        List<Long> lines = new ArrayList<>(productIds);
+        Collections.shuffle(lines, ThreadLocalRandom.current());
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (Long productId : lines) {
+            items.add(new OrderItemDTO(null, productId, null, 1, null));
+        }
+        return orderService.placeOrder(new OrderDTO(null, null, null, items, null, null));
+    }
+}
@@ -0,0 +1,80 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.dto.FacetCounts;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.search.FacetFilter;
+import com.tanmay.secure_e_commerce.search.ProductFacetIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Facet counts, cached and freshly computed, and one filtered listing page over a synthetic
+ * 1M-product catalog with 50 categories, filtered by category, price band and in stock together.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductFacetBenchmark {
+
+    @Param({"1000000"})
+    public int products;
+
+    private ProductFacetIndex index;
+    private FacetFilter[] filters;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ProductFacetIndex();
+        ReflectionTestUtils.setField(index, "priceBands", new BigDecimal[]{
+                BigDecimal.ZERO, new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50"),
+                new BigDecimal("100"), new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000")});
+        ReflectionTestUtils.invokeMethod(index, "init");
+        index.rebuild(LongStream.rangeClosed(1, products).mapToObj(id -> new ProductDTO(
+                id, "SKU-" + id, "Product " + id, null,
+                BigDecimal.valueOf(random.nextInt(200_000), 2),
+                random.nextInt(4),
+                1L + random.nextInt(50),
+                "Category",
+                null,
+                null)));
+
+        String[] bands = {null, "10-25", "50-100", "250-500", "1000+"};
+        filters = new FacetFilter[64];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = new FacetFilter(random.nextBoolean() ? null : 1L + random.nextInt(50),
+                    bands[random.nextInt(bands.length)], random.nextBoolean());
+        }
+    }
+
+    @Benchmark
+    public FacetCounts counts() {
+        return index.counts(filters[next++ & (filters.length - 1)]);
+    }
+
+    // Every call follows an index write, so the counts are computed rather than served from the cache
+    @Benchmark
+    public FacetCounts countsAfterChange() {
+        long id = 1 + (next * 7919L) % products;
+        index.apply(List.of(id), Map.of(id, new ProductDTO(id, "SKU-" + id, "Product " + id, null,
+                BigDecimal.valueOf(next % 200_000, 2), next % 4, 1L + next % 50, "Category", null, null)));
+        return index.counts(filters[next++ & (filters.length - 1)]);
+    }
+
+    @Benchmark
+    public List<Long> page() {
+        FacetFilter filter = filters[next++ & (filters.length - 1)];
+        return index.productIds(filter, 500_000, 21);
+    }
+}
@@ -0,0 +1,101 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.dto.ImportReport;
+import com.tanmay.secure_e_commerce.entity.Category;
+import com.tanmay.secure_e_commerce.enums.DataFormat;
+import com.tanmay.secure_e_commerce.repository.CategoryRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.service.ProductImportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imported rows/sec through the bulk import: each invocation imports {@value #ROWS} rows that are
+ * either all new SKUs or all updates of existing ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ProductImportBenchmark.ROWS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ProductImportBenchmark {
+
+    static final int ROWS = 10_000;
+
+    @Param({"csv", "ndjson"})
+    private String format;
+
+    @Param({"insert", "update"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private ProductImportService importService;
+    private DataFormat dataFormat;
+    private int run;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start("import.max-errors=10");
+        importService = context.getBean(ProductImportService.class);
+        dataFormat = DataFormat.from(format);
+        context.getBean(CategoryRepository.class).save(new Category(null, "Bench", null, null));
+
+        UserDetails admin = context.getBean(CustomUserDetailsService.class).loadUserByUsername("admin");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+        if (mode.equals("update")) {
+            importService.importProducts(dataFormat, new ByteArrayInputStream(body(0, 0)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBody() {
+        run++;
+        // Inserts use fresh SKUs each time, updates rewrite the same SKUs with a new stock level
+        body = mode.equals("insert") ? body(run, run) : body(0, run);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public ImportReport importRows() throws Exception {
+        ImportReport report = importService.importProducts(dataFormat, new ByteArrayInputStream(body));
+        if (report.getFailed() > 0) {
+            throw new IllegalStateException("Import failed: " + report.getErrors());
+        }
+        return report;
+    }
+
+    private byte[] body(int skuBatch, int stock) {
+        StringBuilder out = new StringBuilder(ROWS * 96);
+        if (dataFormat == DataFormat.CSV) {
+            out.append("sku,name,description,price,stock,category\n");
+        }
+        for (int i = 0; i < ROWS; i++) {
+            String sku = "B" + skuBatch + "-" + i;
+            if (dataFormat == DataFormat.CSV) {
+                out.append(sku).append(",Product ").append(i).append(",Imported from the ERP,")
+                        .append(i % 500).append(".99,").append(stock).append(",Bench\n");
+            } else {
+                out.append("{\"sku\":\"").append(sku).append("\",\"name\":\"Product ").append(i)
+                        .append("\",\"description\":\"Imported from the ERP\",\"price\":").append(i % 500)
+                        .append(".99,\"stock\":").append(stock).append(",\"category\":\"Bench\"}\n");
+            }
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,94 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductSearchResult;
+import com.tanmay.secure_e_commerce.search.ProductSearchIndex;
+import com.tanmay.secure_e_commerce.search.SearchCriteria;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Search latency over a synthetic 1M-product catalog. Words are drawn with a skewed distribution so
+ * common words have long postings lists, as in a real catalog. Report the p99 from the sample-time output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSearchBenchmark {
+
+    private static final int VOCABULARY = 5_000;
+
+    @Param({"1000000"})
+    public int products;
+
+    @Param({"common", "rare", "twoWords", "prefix", "filtered"})
+    public String query;
+
+    private ProductSearchIndex index;
+    private SearchCriteria[] criteria;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ProductSearchIndex();
+        index.rebuild(LongStream.rangeClosed(1, products).mapToObj(id -> new ProductDTO(
+                id,
+                "SKU-" + id,
+                words(random, 3),
+                words(random, 12),
+                BigDecimal.valueOf(random.nextInt(100_000), 2),
+                random.nextInt(5),
+                1L + random.nextInt(20),
+                null,
+                null,
+                null)));
+
+        criteria = new SearchCriteria[64];
+        for (int i = 0; i < criteria.length; i++) {
+            criteria[i] = switch (query) {
+                case "common" -> criteria(word(random.nextInt(10)), null, false);
+                case "rare" -> criteria(word(1_000 + random.nextInt(4_000)), null, false);
+                case "twoWords" -> criteria(word(random.nextInt(50)) + " " + word(random.nextInt(500)), null, false);
+                case "prefix" -> criteria(word(random.nextInt(100)) + " " + word(random.nextInt(100)).substring(0, 3), null, false);
+                default -> criteria(word(random.nextInt(50)), 1L + random.nextInt(20), true);
+            };
+        }
+    }
+
+    @Benchmark
+    public ProductSearchResult search() {
+        return index.search(criteria[next++ & (criteria.length - 1)]);
+    }
+
+    private static SearchCriteria criteria(String query, Long categoryId, boolean inStock) {
+        return new SearchCriteria(query, categoryId, inStock ? new BigDecimal("10") : null,
+                inStock ? new BigDecimal("500") : null, inStock, 0, 20);
+    }
+
+    // Skewed towards low word numbers: word 0 is in roughly one product in ten
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int rank = (int) Math.min(VOCABULARY - 1, Math.pow(VOCABULARY, random.nextDouble()) - 1);
+            text.append(word(rank)).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    private static String word(int rank) {
+        String letters = "abcdefghijklmnopqrstuvwxyz";
+        StringBuilder word = new StringBuilder("w");
+        for (int n = rank + 26 * 26; n > 0; n /= 26) {
+            word.append(letters.charAt(n % 26));
+        }
+        return word.toString();
+    }
+}
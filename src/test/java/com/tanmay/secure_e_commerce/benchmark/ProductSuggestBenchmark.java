@@ -0,0 +1,82 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductSuggestion;
+import com.tanmay.secure_e_commerce.search.ProductSuggestIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Autocomplete latency over 1M synthetic product names with skewed sales, for prefixes of 1 to 4
+ * letters. Short prefixes match hundreds of thousands of names, so they show the cost of picking the
+ * top 10 from a large range. The setup prints the heap the index holds on to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductSuggestBenchmark {
+
+    private static final String[] WORDS = {
+            "wireless", "mouse", "keyboard", "laptop", "stand", "usb", "cable", "charger", "phone", "case",
+            "monitor", "lamp", "desk", "chair", "speaker", "headphones", "camera", "tripod", "backpack", "bottle"};
+
+    @Param({"1000000"})
+    public int products;
+
+    @Param({"1", "2", "4"})
+    public int prefixLength;
+
+    private ProductSuggestIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<Long, Long> sales = new HashMap<>();
+        long before = usedHeap();
+        index = new ProductSuggestIndex();
+        index.rebuild(LongStream.rangeClosed(1, products).mapToObj(id -> {
+            if (random.nextInt(10) == 0) {
+                sales.put(id, (long) Math.pow(10_000, random.nextDouble()));
+            }
+            return new ProductDTO(id, "SKU-" + id, name(random), null, BigDecimal.ONE, 1, 1L, null, null, null);
+        }), sales);
+        sales.clear();
+        System.out.printf("%nsuggest index: ~%d MB for %d names%n", (usedHeap() - before) >> 20, index.size());
+
+        queries = new String[64];
+        for (int i = 0; i < queries.length; i++) {
+            String name = name(random);
+            queries[i] = name.substring(0, Math.min(prefixLength, name.length()));
+        }
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> suggest() {
+        return index.suggest(queries[next++ & (queries.length - 1)], 10);
+    }
+
+    private static String name(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + " " + Integer.toString(random.nextInt(1 << 20), 36);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,170 @@
+package com.tanmay.secure_e_commerce.benchmark;
+
+import com.tanmay.secure_e_commerce.dto.CursorPage;
+import com.tanmay.secure_e_commerce.entity.Category;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.repository.CategoryRepository;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bursts of concurrent requests against the filtered catalog listing and order placement, with
+ * request handling on Tomcat's platform thread pool or on virtual threads. Every statement
+ * waits {@code dbRoundTripMicros} first, standing in for the network round trip to Postgres that
+ * the in-memory database does not have. Each operation is one burst of {@code concurrency}
+ * requests; multiply the score by it for requests/sec. Requests shed with 503 are counted and
+ * printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ThreadModelBenchmark {
+
+    private static volatile long dbRoundTripNanos;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"catalog", "order"})
+    public String endpoint;
+
+    @Param({"512"})
+    public int concurrency;
+
+    @Param({"500"})
+    public int dbRoundTripMicros;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private List<HttpRequest> requests;
+    private final AtomicLong shed = new AtomicLong();
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        context = BenchmarkApplication.start(new Class<?>[]{DatabaseLatency.class},
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "virtual-threads.max-concurrent-requests=" + concurrency);
+
+        Category category = context.getBean(CategoryRepository.class).save(new Category(null, "Load", null, null));
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            productIds.add(productRepository.save(new Product(null, null, "Load " + i, null,
+                    BigDecimal.valueOf(5 + i % 90), 1_000_000_000, category, false, null, null)).getId());
+        }
+        // Let the facet index pick the products up
+        Thread.sleep(1_000);
+
+        String token = "Bearer " + context.getBean(JwtUtil.class).generateToken(
+                context.getBean(CustomUserDetailsService.class).loadUserByUsername("customer1"), "CUSTOMER");
+        String base = "http://localhost:" + BenchmarkApplication.port(context);
+        requests = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            requests.add(endpoint.equals("catalog")
+                    ? HttpRequest.newBuilder(URI.create(base + "/api/products?categoryId=" + category.getId()
+                            + "&cursor=" + CursorPage.encodeCursor(productIds.get(i % 400)) + "&size=20")).GET().build()
+                    : HttpRequest.newBuilder(URI.create(base + "/api/orders"))
+                            .header("Authorization", token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"orderItems\":[{\"productId\":"
+                                    + productIds.get(i % productIds.size()) + ",\"quantity\":1}]}"))
+                            .build());
+        }
+        client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        dbRoundTripNanos = TimeUnit.MICROSECONDS.toNanos(dbRoundTripMicros);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dbRoundTripNanos = 0;
+        System.out.println("Shed with 503: " + shed.get());
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            int status = response.join().statusCode();
+            if (status == 503) {
+                shed.incrementAndGet();
+            } else if (status != 200 && status != 201) {
+                throw new IllegalStateException("Unexpected status " + status);
+            }
+            ok++;
+        }
+        return ok;
+    }
+
+    // Parks before every statement, as a Postgres round trip would
+    @TestConfiguration
+    static class DatabaseLatency {
+
+        private static final Set<String> EXECUTE = Set.of(
+                "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+        @Bean
+        static BeanPostProcessor slowDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (target instanceof Statement && dbRoundTripNanos > 0 && EXECUTE.contains(method.getName())) {
+                    LockSupport.parkNanos(dbRoundTripNanos);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (result instanceof Connection connection) {
+                    return proxy(Connection.class, connection);
+                }
+                if (result instanceof Statement statement) {
+                    return proxy((Class<Statement>) method.getReturnType(), statement);
+                }
+                return result;
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.tanmay.secure_e_commerce.cache;
+
+import com.tanmay.secure_e_commerce.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore();
+        ReflectionTestUtils.setField(store, "maxKeys", 100L);
+        ReflectionTestUtils.setField(store, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(store, "waitSeconds", 1L);
+        ReflectionTestUtils.setField(store, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(store, "init");
+    }
+
+    @Test
+    void errorInTheFirstRequestReleasesTheKey() {
+        assertThrows(StackOverflowError.class, () -> store.execute(1L, "key", "body", () -> {
+            throw new StackOverflowError();
+        }));
+
+        ResponseEntity<String> retry = store.execute(1L, "key", "body", () -> ResponseEntity.ok("done"));
+
+        assertEquals("done", retry.getBody());
+        assertNull(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void duplicateStopsWaitingForASlowFirstRequest() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(
+                () -> store.execute(1L, "key", "body", () -> {
+                    running.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ResponseEntity.ok("done");
+                }));
+        try {
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            assertThrows(ConflictException.class,
+                    () -> store.execute(1L, "key", "body", () -> ResponseEntity.ok("again")));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals("done", first.get(10, TimeUnit.SECONDS).getBody());
+        assertEquals("true", store.execute(1L, "key", "body", () -> ResponseEntity.ok("again"))
+                .getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+}
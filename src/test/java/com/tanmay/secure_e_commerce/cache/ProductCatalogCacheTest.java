@@ -0,0 +1,74 @@
+package com.tanmay.secure_e_commerce.cache;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.event.ProductsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductCatalogCacheTest {
+
+    private ProductCatalogCache cache;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCatalogCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+    }
+
+    @Test
+    void servesRepeatedReadsFromCacheAndCountsHits() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getProduct(1L, () -> product(1L, 10, loads));
+        cache.getProduct(1L, () -> product(1L, 10, loads));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void writeEvictsTheProductAndEveryListing() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getProduct(1L, () -> product(1L, 10, loads));
+        cache.getProduct(2L, () -> product(2L, 10, loads));
+        cache.getList("all", () -> List.of(product(1L, 10, loads)));
+
+        cache.onProductsChanged(ProductsChangedEvent.of(1L));
+
+        assertEquals(9, cache.getProduct(1L, () -> product(1L, 9, loads)).getStock());
+        assertEquals(10, cache.getProduct(2L, () -> product(2L, 0, loads)).getStock());
+        assertEquals(9, cache.getList("all", () -> List.of(product(1L, 9, loads))).get(0).getStock());
+    }
+
+    @Test
+    void loadThatRacedWithAWriteIsNotKept() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getProduct(1L, () -> {
+            ProductDTO stale = product(1L, 10, loads);
+            cache.onProductsChanged(ProductsChangedEvent.of(1L));
+            return stale;
+        });
+
+        assertEquals(9, cache.getProduct(1L, () -> product(1L, 9, loads)).getStock());
+    }
+
+    private ProductDTO product(Long id, int stock, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new ProductDTO(id, null, "Product " + id, null, BigDecimal.TEN, stock, 1L, "Category", null, null);
+    }
+}
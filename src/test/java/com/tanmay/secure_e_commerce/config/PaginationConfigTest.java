@@ -0,0 +1,38 @@
+package com.tanmay.secure_e_commerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaginationConfigTest {
+
+    private final PaginationConfig paginationConfig = new PaginationConfig();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paginationConfig, "defaultSize", 20);
+        ReflectionTestUtils.setField(paginationConfig, "maxSize", 100);
+    }
+
+    @Test
+    void missingSizeUsesTheDefault() {
+        assertEquals(20, paginationConfig.resolveSize(null));
+    }
+
+    @Test
+    void sizeIsKeptUpToTheMaximumAndClampedAbove() {
+        assertEquals(1, paginationConfig.resolveSize(1));
+        assertEquals(100, paginationConfig.resolveSize(100));
+        assertEquals(100, paginationConfig.resolveSize(101));
+        assertEquals(100, paginationConfig.resolveSize(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void sizeBelowOneIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> paginationConfig.resolveSize(0));
+        assertThrows(IllegalArgumentException.class, () -> paginationConfig.resolveSize(-5));
+    }
+}
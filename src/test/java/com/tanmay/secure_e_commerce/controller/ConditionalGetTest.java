@@ -0,0 +1,130 @@
+package com.tanmay.secure_e_commerce.controller;
+
+import com.tanmay.secure_e_commerce.dto.CategoryDTO;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.service.CategoryService;
+import com.tanmay.secure_e_commerce.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    private UsernamePasswordAuthenticationToken admin;
+    private CategoryDTO category;
+
+    @BeforeEach
+    void setUp() {
+        UserDetails user = userDetailsService.loadUserByUsername("admin");
+        admin = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(admin);
+        category = categoryService.createCategory(new CategoryDTO(null, "Conditional " + System.nanoTime(), null, null));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void productIsNotResentUntilItChanges() throws Exception {
+        ProductDTO product = productService.createProduct(product("Lamp", 5));
+        String url = "/api/products/" + product.getId();
+
+        String etag = assertModified(url, null);
+        assertNotModified(url, etag);
+
+        productService.updateProduct(product.getId(), product("Lamp", 4));
+        String updated = assertModified(url, etag);
+        assertNotEquals(etag, updated);
+        assertNotModified(url, updated);
+
+        // The product carries its category name, so renaming the category changes it too
+        categoryService.updateCategory(category.getId(), new CategoryDTO(null, category.getName() + " renamed", null, null));
+        assertNotEquals(updated, assertModified(url, updated));
+    }
+
+    @Test
+    void listingIsNotResentUntilAProductChanges() throws Exception {
+        String etag = assertModified("/api/products", null);
+        assertNotModified("/api/products", etag);
+
+        productService.createProduct(product("Desk", 2));
+        assertNotEquals(etag, assertModified("/api/products", etag));
+    }
+
+    @Test
+    void categoriesAreNotResentUntilOneChanges() throws Exception {
+        String etag = assertModified("/api/categories", null);
+        assertNotModified("/api/categories", etag);
+        assertNotModified("/api/categories/" + category.getId(), etag);
+
+        categoryService.updateCategory(category.getId(), new CategoryDTO(null, category.getName() + " v2", "new", null));
+        assertNotEquals(etag, assertModified("/api/categories", etag));
+    }
+
+    private ProductDTO product(String name, int stock) {
+        ProductDTO product = new ProductDTO();
+        product.setName(name);
+        product.setPrice(new BigDecimal("12.00"));
+        product.setStock(stock);
+        product.setCategoryId(category.getId());
+        return product;
+    }
+
+    private String assertModified(String url, String ifNoneMatch) throws Exception {
+        MvcResult result = perform(ifNoneMatch == null ? get(url) : get(url).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch));
+        assertEquals(200, result.getResponse().getStatus());
+        assertNotNull(result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private void assertNotModified(String url, String etag) throws Exception {
+        MvcResult result = perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertEquals(304, result.getResponse().getStatus());
+        assertEquals("", result.getResponse().getContentAsString());
+    }
+
+    // The security filter clears the context after each request, so the admin is put back for the next write
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        SecurityContextHolder.getContext().setAuthentication(admin);
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+package com.tanmay.secure_e_commerce.controller;
+
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotentOrderTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        token = "Bearer " + jwtUtil.generateToken(userDetailsService.loadUserByUsername("customer1"), "CUSTOMER");
+        productId = productRepository.save(new Product(null, null, "Retried", null, new BigDecimal("6.00"), 100, null, false, null, null)).getId();
+    }
+
+    @Test
+    void retryReplaysTheFirstResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        MvcResult first = placeOrder(key, 2);
+        MvcResult retry = placeOrder(key, 2);
+
+        assertEquals(201, first.getResponse().getStatus());
+        assertNull(first.getResponse().getHeader("Idempotent-Replayed"));
+        assertEquals(201, retry.getResponse().getStatus());
+        assertEquals("true", retry.getResponse().getHeader("Idempotent-Replayed"));
+        assertEquals(orderId(first), orderId(retry));
+        assertEquals(98, productRepository.findStockById(productId).orElseThrow());
+
+        // A new key is a new order
+        assertEquals(201, placeOrder(UUID.randomUUID().toString(), 2).getResponse().getStatus());
+        assertEquals(96, productRepository.findStockById(productId).orElseThrow());
+    }
+
+    @Test
+    void concurrentDuplicatesPlaceOneOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<MvcResult>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return placeOrder(key, 1);
+                }));
+            }
+            start.countDown();
+
+            Set<Long> orderIds = new HashSet<>();
+            for (Future<MvcResult> result : results) {
+                assertEquals(201, result.get().getResponse().getStatus());
+                orderIds.add(orderId(result.get()));
+            }
+            assertEquals(1, orderIds.size());
+            assertEquals(99, productRepository.findStockById(productId).orElseThrow());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyReusedForADifferentOrderIsAConflict() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        assertEquals(201, placeOrder(key, 1).getResponse().getStatus());
+        assertEquals(409, placeOrder(key, 3).getResponse().getStatus());
+        assertEquals(99, productRepository.findStockById(productId).orElseThrow());
+    }
+
+    private MvcResult placeOrder(String key, int quantity) throws Exception {
+        return mockMvc.perform(post("/api/orders")
+                        .header("Authorization", token)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderItems\":[{\"productId\":" + productId + ",\"quantity\":" + quantity + "}]}"))
+                .andReturn();
+    }
+
+    private Long orderId(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("id").asLong();
+    }
+}
@@ -0,0 +1,67 @@
+package com.tanmay.secure_e_commerce.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorPageTest {
+
+    @Test
+    void cursorRoundTripsTheLastId() {
+        for (long id : new long[]{1L, 42L, Long.MAX_VALUE}) {
+            String cursor = CursorPage.encodeCursor(id);
+            assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+            assertEquals(id, CursorPage.decodeCursor(cursor));
+        }
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertEquals(0L, CursorPage.decodeCursor(null));
+        assertEquals(0L, CursorPage.decodeCursor(""));
+        assertEquals(0L, CursorPage.decodeCursor("  "));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CursorPage.decodeCursor("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> CursorPage.decodeCursor(CursorPage.encodeCursor(7L) + "x"));
+    }
+
+    @Test
+    void extraRowSignalsANextPageAndIsNotReturned() {
+        CursorPage<Long> page = CursorPage.of(List.of(1L, 2L, 3L, 4L), 3, Function.identity(), Function.identity(), 10L);
+
+        assertEquals(List.of(1L, 2L, 3L), page.getItems());
+        assertEquals(3L, CursorPage.decodeCursor(page.getNextCursor()));
+        assertEquals(10L, page.getTotalCount());
+    }
+
+    @Test
+    void exactlyPageSizeRowsIsTheLastPage() {
+        CursorPage<Long> full = CursorPage.of(List.of(1L, 2L, 3L), 3, Function.identity(), Function.identity(), null);
+        CursorPage<Long> empty = CursorPage.of(List.<Long>of(), 3, Function.identity(), Function.identity(), null);
+
+        assertEquals(List.of(1L, 2L, 3L), full.getItems());
+        assertNull(full.getNextCursor());
+        assertTrue(empty.getItems().isEmpty());
+        assertNull(empty.getNextCursor());
+    }
+
+    @Test
+    void itemsAreMappedAndReplacedWithoutLosingTheCursor() {
+        CursorPage<String> page = CursorPage.of(List.of(5L, 9L, 12L), 2, Function.identity(), id -> "p" + id, null);
+        assertEquals(List.of("p5", "p9"), page.getItems());
+
+        CursorPage<Integer> replaced = page.withItems(List.of(1, 2));
+        assertEquals(List.of(1, 2), replaced.getItems());
+        assertEquals(page.getNextCursor(), replaced.getNextCursor());
+        assertEquals(9L, CursorPage.decodeCursor(replaced.getNextCursor()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.tanmay.secure_e_commerce.intake;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.exception.ServiceUnavailableException;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = {"orders.intake.async=true", "orders.intake.linger-ms=20", "orders.intake.retry.initial-backoff-ms=20"})
+@ActiveProfiles("test")
+class OrderIntakeTest {
+
+    @Autowired
+    private OrderIntake orderIntake;
+
+    @Autowired
+    private OrderService orderService;
+
+    @MockitoSpyBean
+    private OrderBatchWriter batchWriter;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        UserDetails customer = userDetailsService.loadUserByUsername("customer1");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void queuedOrdersAreCommittedInBatchesWithoutOverselling() throws Exception {
+        Long productId = productRepository.save(new Product(null, null, "Queued", null, new BigDecimal("4.00"), 10, null, false, null, null)).getId();
+        double batchesBefore = meterRegistry.summary("orders.intake.batch.size").count();
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            OrderDTO queued = orderIntake.submit(order(productId, 1));
+            assertEquals(OrderStatus.PENDING, queued.getStatus());
+            orderIds.add(queued.getId());
+        }
+
+        int created = 0;
+        int rejected = 0;
+        for (Long id : orderIds) {
+            OrderDTO order = awaitOutcome(id);
+            if (order.getStatus() == OrderStatus.CREATED) {
+                created++;
+                assertEquals(0, new BigDecimal("4.00").compareTo(order.getTotalAmount()));
+            } else {
+                assertEquals(OrderStatus.REJECTED, order.getStatus());
+                rejected++;
+            }
+        }
+
+        assertEquals(10, created);
+        assertEquals(5, rejected);
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getStock());
+        assertEquals(10, jdbcTemplate.queryForObject(
+                "select coalesce(sum(quantity), 0) from order_items where product_id = ?", Integer.class, productId));
+        // Fifteen orders arrived faster than the linger time, so they shared transactions
+        assertTrue(meterRegistry.summary("orders.intake.batch.size").count() - batchesBefore < 15);
+    }
+
+    @Test
+    void stoppingDrainsTheQueueAndThenRefusesOrders() {
+        Long productId = productRepository.save(new Product(null, null, "Drained", null, new BigDecimal("1.00"), 1_000, null, false, null, null)).getId();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            orderIds.add(orderIntake.submit(order(productId, 2)).getId());
+        }
+
+        orderIntake.stop();
+        try {
+            for (Long id : orderIds) {
+                assertEquals(OrderStatus.CREATED, orderService.getOrderById(id).getStatus());
+            }
+            assertEquals(900, productRepository.findById(productId).orElseThrow().getStock());
+            assertThrows(ServiceUnavailableException.class, () -> orderIntake.submit(order(productId, 1)));
+        } finally {
+            orderIntake.start();
+        }
+    }
+
+    @Test
+    void orderWhoseWriteFailsTransientlyStaysPendingAndIsRetried() throws Exception {
+        Long productId = productRepository.save(new Product(null, null, "Retried", null, new BigDecimal("2.00"), 5, null, false, null, null)).getId();
+        // The spy sits behind the transactional proxy, so it is stubbed directly
+        OrderBatchWriter spy = AopTestUtils.getTargetObject(batchWriter);
+        doThrow(new CannotCreateTransactionException("Connection refused"))
+                .doThrow(new CannotCreateTransactionException("Connection refused"))
+                .doCallRealMethod()
+                .when(spy).write(any());
+        double retriedBefore = meterRegistry.counter("orders.intake.retried").count();
+
+        OrderDTO order = awaitOutcome(orderIntake.submit(order(productId, 2)).getId());
+
+        assertEquals(OrderStatus.CREATED, order.getStatus());
+        assertEquals(2, meterRegistry.counter("orders.intake.retried").count() - retriedBefore);
+        assertEquals(3, productRepository.findById(productId).orElseThrow().getStock());
+    }
+
+    private OrderDTO awaitOutcome(Long id) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            OrderDTO order = orderService.getOrderById(id);
+            if (order.getStatus() != OrderStatus.PENDING) {
+                return order;
+            }
+            Thread.sleep(25);
+        }
+        throw new AssertionError("Order " + id + " still pending");
+    }
+
+    private static OrderDTO order(Long productId, int quantity) {
+        return new OrderDTO(null, null, null, List.of(new OrderItemDTO(null, productId, null, quantity, null)), null, null);
+    }
+}
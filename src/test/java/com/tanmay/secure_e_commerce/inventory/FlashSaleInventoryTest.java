@@ -0,0 +1,240 @@
+package com.tanmay.secure_e_commerce.inventory;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.repository.StockReservationRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The scheduled write-back is left running, so every check also holds while it races the test
+@SpringBootTest
+@ActiveProfiles("test")
+class FlashSaleInventoryTest {
+
+    private static final int INITIAL_STOCK = 200;
+
+    @Autowired
+    private FlashSaleInventory flashSaleInventory;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void hotProductSellsOutExactlyAndWritesBackToTheRow() throws Exception {
+        Long productId = newProduct(INITIAL_STOCK);
+        startFlashSale(productId);
+
+        UserDetails customer = userDetailsService.loadUserByUsername("customer1");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(pool.submit(() -> {
+                login(customer);
+                start.await();
+                int sold = 0;
+                for (int i = 0; i < 40; i++) {
+                    try {
+                        orderService.placeOrder(order(productId, 1));
+                        sold++;
+                    } catch (IllegalArgumentException e) {
+                        // sold out
+                    }
+                }
+                return sold;
+            }));
+        }
+        start.countDown();
+        int sold = 0;
+        for (Future<Integer> worker : workers) {
+            sold += worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(INITIAL_STOCK, sold);
+        assertEquals(0L, flashSaleInventory.available(productId));
+        assertEquals(INITIAL_STOCK, soldInOrders(productId));
+
+        flashSaleInventory.writeBack();
+        assertEquals(0, productRepository.findStockById(productId).orElseThrow());
+        assertEquals(0, reservationRepository.sumQuantityByProductId(productId));
+    }
+
+    @Test
+    void failedOrderReleasesItsFlashSaleReservation() {
+        Long flashProductId = newProduct(10);
+        Long regularProductId = newProduct(1);
+        startFlashSale(flashProductId);
+        login(userDetailsService.loadUserByUsername("customer1"));
+
+        OrderDTO order = order(flashProductId, 4);
+        order.getOrderItems().add(new OrderItemDTO(null, regularProductId, null, 5, null));
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.placeOrder(order));
+        assertEquals(10L, flashSaleInventory.available(flashProductId));
+        assertEquals(0, reservationRepository.sumQuantityByProductId(flashProductId));
+    }
+
+    @Test
+    void restartRebuildsCountersFromStockMinusPendingReservations() {
+        Long productId = newProduct(50);
+        startFlashSale(productId);
+        login(userDetailsService.loadUserByUsername("customer1"));
+        orderService.placeOrder(order(productId, 7));
+        orderService.placeOrder(order(productId, 5));
+
+        Map<?, ?> counters = (Map<?, ?>) ReflectionTestUtils.getField(flashSaleInventory, "counters");
+        counters.clear();
+        flashSaleInventory.recover();
+
+        assertEquals(38L, flashSaleInventory.available(productId));
+    }
+
+    @Test
+    void endingTheSaleAppliesPendingStockAndReturnsToTheRow() {
+        Long productId = newProduct(20);
+        startFlashSale(productId);
+        login(userDetailsService.loadUserByUsername("customer1"));
+        orderService.placeOrder(order(productId, 6));
+
+        login(userDetailsService.loadUserByUsername("admin"));
+        flashSaleInventory.disable(productId);
+
+        assertFalse(flashSaleInventory.isActive(productId));
+        assertFalse(productRepository.findById(productId).orElseThrow().isFlashSale());
+        assertEquals(14, productRepository.findStockById(productId).orElseThrow());
+
+        login(userDetailsService.loadUserByUsername("customer1"));
+        orderService.placeOrder(order(productId, 4));
+        assertEquals(10, productRepository.findStockById(productId).orElseThrow());
+        assertTrue(reservationRepository.findByProductIdOrderByIdAsc(productId).isEmpty());
+    }
+
+    @Test
+    void checkoutArrivingWhileTheSaleEndsFallsBackToTheRow() throws Exception {
+        Long productId = newProduct(20);
+        startFlashSale(productId);
+        Product product = productRepository.findById(productId).orElseThrow();
+
+        // An order holding a counter reservation keeps the sale closing until it commits
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        Future<?> inFlight = pool.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            flashSaleInventory.reserve(product, 2);
+            reserved.countDown();
+            try {
+                commit.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(reserved.await(10, TimeUnit.SECONDS));
+
+        UserDetails admin = userDetailsService.loadUserByUsername("admin");
+        UserDetails customer = userDetailsService.loadUserByUsername("customer1");
+        try {
+            Future<?> disabling = pool.submit(() -> {
+                login(admin);
+                flashSaleInventory.disable(productId);
+                return null;
+            });
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (flashSaleInventory.isActive(productId)) {
+                assertTrue(System.currentTimeMillis() < deadline, "Closing counter still reported as active");
+                Thread.sleep(1);
+            }
+
+            Future<?> checkout = pool.submit(() -> {
+                login(customer);
+                return orderService.placeOrder(order(productId, 3));
+            });
+            Thread.sleep(100);
+            commit.countDown();
+
+            inFlight.get(10, TimeUnit.SECONDS);
+            disabling.get(10, TimeUnit.SECONDS);
+            checkout.get(10, TimeUnit.SECONDS);
+        } finally {
+            commit.countDown();
+            pool.shutdown();
+        }
+
+        assertFalse(flashSaleInventory.isActive(productId));
+        assertEquals(15, productRepository.findStockById(productId).orElseThrow());
+        assertTrue(reservationRepository.findByProductIdOrderByIdAsc(productId).isEmpty());
+    }
+
+    private Long newProduct(int stock) {
+        return productRepository.save(new Product(null, null, "Drop", null, new BigDecimal("25.00"), stock, null, false, null, null)).getId();
+    }
+
+    private void startFlashSale(Long productId) {
+        login(userDetailsService.loadUserByUsername("admin"));
+        flashSaleInventory.enable(productId);
+        SecurityContextHolder.clearContext();
+    }
+
+    private int soldInOrders(Long productId) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(quantity), 0) from order_items where product_id = ?", Integer.class, productId);
+    }
+
+    private static void login(UserDetails user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static OrderDTO order(Long productId, int quantity) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        items.add(new OrderItemDTO(null, productId, null, quantity, null));
+        return new OrderDTO(null, null, null, items, null, null);
+    }
+}
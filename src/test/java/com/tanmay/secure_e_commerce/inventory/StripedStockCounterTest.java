@@ -0,0 +1,83 @@
+package com.tanmay.secure_e_commerce.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedStockCounterTest {
+
+    @Test
+    void concurrentAcquiresNeverGrantMoreThanTheStock() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(10_000, 8);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> workers = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                long granted = 0;
+                for (int i = 0; i < 5_000; i++) {
+                    int quantity = ThreadLocalRandom.current().nextInt(1, 5);
+                    if (counter.tryAcquire(quantity)) {
+                        counter.complete(quantity, true);
+                        granted += quantity;
+                    }
+                }
+                return granted;
+            }));
+        }
+        start.countDown();
+        long granted = 0;
+        for (Future<Long> worker : workers) {
+            granted += worker.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertTrue(granted <= 10_000);
+        assertEquals(10_000 - granted, counter.available());
+    }
+
+    @Test
+    void gathersAcrossStripesAndGivesBackOnFailure() {
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+
+        assertTrue(counter.tryAcquire(7));
+        assertFalse(counter.tryAcquire(4));
+        assertEquals(3, counter.available());
+    }
+
+    @Test
+    void rolledBackAcquireReturnsItsStock() {
+        StripedStockCounter counter = new StripedStockCounter(5, 2);
+
+        assertTrue(counter.tryAcquire(5));
+        counter.complete(5, false);
+
+        assertEquals(5, counter.available());
+    }
+
+    @Test
+    void closeWaitsForAcquiresInFlightAndRefusesNewOnes() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(5, 2);
+        assertTrue(counter.tryAcquire(1));
+
+        assertFalse(counter.close(20));
+
+        counter.complete(1, true);
+        assertTrue(counter.close(20));
+        assertFalse(counter.tryAcquire(1));
+        assertEquals(4, counter.available());
+    }
+}
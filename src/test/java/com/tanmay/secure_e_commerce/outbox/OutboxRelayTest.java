@@ -0,0 +1,145 @@
+package com.tanmay.secure_e_commerce.outbox;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.enums.OrderEventType;
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.event.OrderLifecycleEvent;
+import com.tanmay.secure_e_commerce.repository.OutboxEventRepository;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The scheduled relay only runs at startup here, so each test drives it by hand
+@SpringBootTest(properties = "outbox.relay.interval-ms=3600000")
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private Recorder recorder;
+
+    @Autowired
+    private FlakySink flakySink;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void orderEventsAreRelayedInOrderAfterCommit() {
+        Long orderId = placeOrder();
+        authenticate("admin");
+        orderService.updateOrderStatus(orderId, OrderStatus.CONFIRMED);
+        orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED);
+        assertTrue(recorder.forOrder(orderId).isEmpty());
+
+        outboxRelay.relay();
+
+        List<OrderLifecycleEvent> events = recorder.forOrder(orderId);
+        assertEquals(List.of(OrderEventType.ORDER_CREATED, OrderEventType.ORDER_STATUS_CHANGED, OrderEventType.ORDER_STATUS_CHANGED),
+                events.stream().map(OrderLifecycleEvent::type).toList());
+        assertEquals(List.of(0L, 1L, 2L), events.stream().map(OrderLifecycleEvent::orderVersion).toList());
+        assertTrue(events.get(2).payload().contains("\"previousStatus\":\"CONFIRMED\""));
+        assertTrue(outboxEventRepository.findAll().stream().noneMatch(event -> event.getOrderId().equals(orderId)));
+    }
+
+    @Test
+    void failedSinkLeavesEventsForTheNextRun() {
+        Long orderId = placeOrder();
+        flakySink.failNext.set(true);
+
+        outboxRelay.relay();
+        assertTrue(outboxEventRepository.findAll().stream().anyMatch(event -> event.getOrderId().equals(orderId)));
+
+        outboxRelay.relay();
+        assertFalse(recorder.forOrder(orderId).isEmpty());
+        assertTrue(outboxEventRepository.findAll().stream().noneMatch(event -> event.getOrderId().equals(orderId)));
+    }
+
+    private Long placeOrder() {
+        Long productId = productRepository.save(new Product(null, null, "Relayed", null, new BigDecimal("2.00"), 10, null, false, null, null)).getId();
+        authenticate("customer1");
+        return orderService.placeOrder(new OrderDTO(null, null, null, List.of(new OrderItemDTO(null, productId, null, 1, null)), null, null)).getId();
+    }
+
+    private void authenticate(String username) {
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    static class Recorder {
+        private final List<OrderLifecycleEvent> events = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void on(OrderLifecycleEvent event) {
+            events.add(event);
+        }
+
+        List<OrderLifecycleEvent> forOrder(Long orderId) {
+            return events.stream().filter(event -> event.orderId() == orderId).toList();
+        }
+    }
+
+    static class FlakySink implements OutboxSink {
+        final AtomicBoolean failNext = new AtomicBoolean();
+
+        @Override
+        public void publish(List<OrderLifecycleEvent> events) {
+            if (failNext.getAndSet(false)) {
+                throw new IllegalStateException("sink unavailable");
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class Sinks {
+
+        @Bean
+        Recorder recorder() {
+            return new Recorder();
+        }
+
+        @Bean
+        FlakySink flakySink() {
+            return new FlakySink();
+        }
+    }
+}
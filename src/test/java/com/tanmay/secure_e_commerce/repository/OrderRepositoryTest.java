@@ -0,0 +1,118 @@
+package com.tanmay.secure_e_commerce.repository;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemRow;
+import com.tanmay.secure_e_commerce.dto.OrderRow;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.security.AuthenticatedUser;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    private AuthenticatedUser customer;
+    private Product lamp;
+    private Product desk;
+
+    @BeforeEach
+    void setUp() {
+        lamp = productRepository.save(new Product(null, null, "Row lamp", null, new BigDecimal("12.50"), 100, null, false, null, null));
+        desk = productRepository.save(new Product(null, null, "Row desk", null, new BigDecimal("80.00"), 100, null, false, null, null));
+        customer = userDetailsService.loadUserByUsername("customer1");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void orderRowCarriesItsOwnerAndTotal() {
+        Long orderId = placeOrder(line(lamp, 2), line(desk, 1));
+
+        OrderRow row = orderRepository.findRowById(orderId).orElseThrow();
+
+        assertEquals(orderId, row.id());
+        assertEquals(customer.getId(), row.userId());
+        assertEquals("customer1", row.username());
+        assertEquals(0, new BigDecimal("105.00").compareTo(row.totalAmount()));
+        assertEquals(OrderStatus.CREATED, row.status());
+        assertTrue(orderRepository.findRowById(-1L).isEmpty());
+    }
+
+    @Test
+    void rowsAfterACursorComeInIdOrderUpToTheLimit() {
+        Long first = placeOrder(line(lamp, 1));
+        Long second = placeOrder(line(lamp, 1));
+        Long third = placeOrder(line(lamp, 1));
+
+        List<OrderRow> all = orderRepository.findRowsAfter(first - 1, Limit.of(3));
+        assertEquals(List.of(first, second, third), all.stream().map(OrderRow::id).toList());
+
+        List<OrderRow> mine = orderRepository.findRowsByUserIdAfter(customer.getId(), first, Limit.of(1));
+        assertEquals(List.of(second), mine.stream().map(OrderRow::id).toList());
+
+        AuthenticatedUser admin = userDetailsService.loadUserByUsername("admin");
+        assertTrue(orderRepository.findRowsByUserIdAfter(admin.getId(), first - 1, Limit.of(10)).isEmpty());
+    }
+
+    @Test
+    void itemRowsForSeveralOrdersComeBackInOneListWithProductNames() {
+        Long withTwoLines = placeOrder(line(lamp, 2), line(desk, 1));
+        Long withOneLine = placeOrder(line(desk, 3));
+
+        List<OrderItemRow> items = orderRepository.findItemRowsByOrderIds(List.of(withTwoLines, withOneLine));
+
+        assertEquals(3, items.size());
+        assertEquals(List.of(withTwoLines, withTwoLines, withOneLine), items.stream().map(OrderItemRow::orderId).toList());
+        OrderItemRow lampLine = items.get(0);
+        assertEquals(lamp.getId(), lampLine.productId());
+        assertEquals("Row lamp", lampLine.productName());
+        assertEquals(2, lampLine.quantity());
+        assertEquals(0, new BigDecimal("12.50").compareTo(lampLine.price()));
+        assertEquals("Row desk", items.get(2).productName());
+        assertEquals(3, items.get(2).quantity());
+        assertTrue(items.get(0).id() < items.get(1).id() && items.get(1).id() < items.get(2).id());
+    }
+
+    private Long placeOrder(OrderItemDTO... items) {
+        return orderService.placeOrder(new OrderDTO(null, null, null, List.of(items), null, null)).getId();
+    }
+
+    private static OrderItemDTO line(Product product, int quantity) {
+        return new OrderItemDTO(null, product.getId(), null, quantity, null);
+    }
+}
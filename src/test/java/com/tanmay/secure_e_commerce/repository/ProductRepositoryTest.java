@@ -0,0 +1,88 @@
+package com.tanmay.secure_e_commerce.repository;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.entity.Category;
+import com.tanmay.secure_e_commerce.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+    private Product kettle;
+    private Product toaster;
+    private Product uncategorized;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Projection " + System.nanoTime(), null, null));
+        kettle = productRepository.save(new Product(null, "KET-" + System.nanoTime(), "Kettle", "1.7 l", new BigDecimal("30.00"), 4, category, false, null, null));
+        toaster = productRepository.save(new Product(null, null, "Toaster", null, new BigDecimal("25.00"), 0, category, false, null, null));
+        uncategorized = productRepository.save(new Product(null, null, "Loose", null, new BigDecimal("1.00"), 9, null, false, null, null));
+    }
+
+    @Test
+    void dtoCarriesEveryColumnAndTheCategoryName() {
+        ProductDTO dto = productRepository.findDTOById(kettle.getId()).orElseThrow();
+
+        assertEquals(kettle.getId(), dto.getId());
+        assertEquals(kettle.getSku(), dto.getSku());
+        assertEquals("Kettle", dto.getName());
+        assertEquals("1.7 l", dto.getDescription());
+        assertEquals(0, new BigDecimal("30.00").compareTo(dto.getPrice()));
+        assertEquals(4, dto.getStock());
+        assertEquals(category.getId(), dto.getCategoryId());
+        assertEquals(category.getName(), dto.getCategoryName());
+        assertNotNull(dto.getUpdatedAt());
+        assertEquals(kettle.getVersion(), dto.getVersion());
+    }
+
+    @Test
+    void productWithoutCategoryIsStillListed() {
+        ProductDTO dto = productRepository.findDTOById(uncategorized.getId()).orElseThrow();
+        assertNull(dto.getCategoryId());
+        assertNull(dto.getCategoryName());
+
+        List<ProductDTO> page = productRepository.findDTOsAfter(toaster.getId(), Limit.of(1));
+        assertEquals(List.of(uncategorized.getId()), page.stream().map(ProductDTO::getId).toList());
+    }
+
+    @Test
+    void keysetPageSeeksPastTheCursorInIdOrder() {
+        List<ProductDTO> page = productRepository.findDTOsAfter(kettle.getId() - 1, Limit.of(2));
+        assertEquals(List.of(kettle.getId(), toaster.getId()), page.stream().map(ProductDTO::getId).toList());
+
+        List<ProductDTO> next = productRepository.findDTOsAfter(toaster.getId(), Limit.of(2));
+        assertEquals(uncategorized.getId(), next.get(0).getId());
+    }
+
+    @Test
+    void byIdsAndByCategoryReturnOnlyMatchesInIdOrder() {
+        List<ProductDTO> byIds = productRepository.findDTOsByIdIn(List.of(uncategorized.getId(), kettle.getId(), -1L));
+        assertEquals(List.of(kettle.getId(), uncategorized.getId()), byIds.stream().map(ProductDTO::getId).toList());
+
+        List<ProductDTO> byCategory = productRepository.findDTOsByCategoryId(category.getId());
+        assertEquals(List.of(kettle.getId(), toaster.getId()), byCategory.stream().map(ProductDTO::getId).toList());
+        assertTrue(byCategory.stream().allMatch(dto -> category.getName().equals(dto.getCategoryName())));
+    }
+}
@@ -0,0 +1,78 @@
+package com.tanmay.secure_e_commerce.search;
+
+import com.tanmay.secure_e_commerce.dto.FacetCounts;
+import com.tanmay.secure_e_commerce.dto.FacetValue;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductFacetIndexTest {
+
+    private final ProductFacetIndex index = new ProductFacetIndex();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "priceBands", new BigDecimal[]{
+                BigDecimal.ZERO, new BigDecimal("10"), new BigDecimal("50")});
+        ReflectionTestUtils.invokeMethod(index, "init");
+        index.rebuild(Stream.of(
+                product(1L, "5.00", 3, 1L),
+                product(2L, "10.00", 0, 1L),
+                product(3L, "49.99", 8, 2L),
+                product(4L, "75.00", 1, 2L),
+                product(5L, "120.00", 0, 3L)));
+    }
+
+    @Test
+    void countsEachFacetUnderTheOtherFilters() {
+        FacetCounts all = index.counts(new FacetFilter(null, null, false));
+        assertEquals(5, all.getTotal());
+        assertEquals(3, all.getInStock());
+        assertEquals(Map.of("1", 2L, "2", 2L, "3", 1L), counts(all.getCategories()));
+        assertEquals(Map.of("0-10", 1L, "10-50", 2L, "50+", 2L), counts(all.getPriceBands()));
+
+        FacetCounts filtered = index.counts(new FacetFilter(2L, null, true));
+        assertEquals(2, filtered.getTotal());
+        // Category counts ignore the category filter, band counts include it
+        assertEquals(Map.of("1", 1L, "2", 2L), counts(filtered.getCategories()));
+        assertEquals(Map.of("0-10", 0L, "10-50", 1L, "50+", 1L), counts(filtered.getPriceBands()));
+        assertEquals(2, filtered.getInStock());
+    }
+
+    @Test
+    void listsMatchingIdsAfterTheCursor() {
+        FacetFilter inStock = new FacetFilter(null, null, true);
+        assertEquals(List.of(1L, 3L), index.productIds(inStock, 0, 2));
+        assertEquals(List.of(4L), index.productIds(inStock, 3, 2));
+        assertEquals(List.of(3L), index.productIds(new FacetFilter(2L, "10-50", false), 0, 10));
+        assertEquals(0, index.count(new FacetFilter(9L, null, false)));
+        assertThrows(IllegalArgumentException.class, () -> index.count(new FacetFilter(null, "1-2", false)));
+    }
+
+    @Test
+    void movesChangedProductsBetweenFacets() {
+        index.apply(List.of(2L, 5L), Map.of(2L, product(2L, "60.00", 4, 3L)));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.productIds(new FacetFilter(null, null, true), 0, 10));
+        assertEquals(List.of(2L), index.productIds(new FacetFilter(3L, "50+", false), 0, 10));
+        assertEquals(Map.of("1", 1L, "2", 2L, "3", 1L), counts(index.counts(new FacetFilter(null, null, false)).getCategories()));
+    }
+
+    private static Map<String, Long> counts(List<FacetValue> values) {
+        return values.stream().collect(Collectors.toMap(FacetValue::getValue, FacetValue::getCount));
+    }
+
+    private static ProductDTO product(Long id, String price, int stock, Long categoryId) {
+        return new ProductDTO(id, "SKU-" + id, "Product " + id, null, new BigDecimal(price), stock, categoryId, "Category " + categoryId, null, null);
+    }
+}
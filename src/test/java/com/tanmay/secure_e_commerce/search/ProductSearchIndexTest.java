@@ -0,0 +1,87 @@
+package com.tanmay.secure_e_commerce.search;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(Stream.of(
+                product(1L, "Wireless Mouse", "Ergonomic mouse with silent clicks", "25.00", 10, 1L),
+                product(2L, "Mouse Pad", "Large pad for any wireless mouse", "9.99", 0, 1L),
+                product(3L, "Keyboard", "Mechanical keyboard, wireless", "89.00", 5, 1L),
+                product(4L, "Café Crème Mug", "Ceramic mug", "12.00", 3, 2L),
+                product(5L, "Wirecutter Pliers", "Hand tool", "15.00", 7, 3L)));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        assertEquals(List.of(1L, 2L), ids(index.search(criteria("mouse"))));
+        assertEquals(List.of(1L, 2L), ids(index.search(criteria("wireless mouse"))));
+        assertEquals(List.of(1L, 3L, 2L), ids(index.search(criteria("wireless"))));
+    }
+
+    @Test
+    void matchesPrefixesAndFoldsAccents() {
+        assertEquals(List.of(3L), ids(index.search(criteria("keyb"))));
+        assertEquals(List.of(4L), ids(index.search(criteria("CAFE creme"))));
+        assertEquals(Set.of(1L, 2L, 3L, 5L), Set.copyOf(ids(index.search(criteria("wire")))));
+        assertEquals(0, index.search(criteria("mouse mug")).getTotal());
+    }
+
+    @Test
+    void appliesFiltersAndPaging() {
+        SearchCriteria inStockUnder50 = new SearchCriteria("wireless", 1L, null, new BigDecimal("50"), true, 0, 20);
+        assertEquals(List.of(1L), ids(index.search(inStockUnder50)));
+
+        ProductSearchResult secondPage = index.search(new SearchCriteria("wireless", null, null, null, false, 1, 2));
+        assertEquals(3, secondPage.getTotal());
+        assertEquals(List.of(2L), ids(secondPage));
+
+        assertThrows(IllegalArgumentException.class, () -> index.search(criteria(" ,. ")));
+    }
+
+    @Test
+    void rejectsPagesBeyondTheResultCapWithoutOverflowing() {
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search(new SearchCriteria("mouse", null, null, null, false, 107_374_183, 20)));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search(new SearchCriteria("mouse", null, null, null, false, Integer.MAX_VALUE, 100)));
+    }
+
+    @Test
+    void followsProductChanges() {
+        index.apply(List.of(2L, 3L), Map.of(3L, product(3L, "Trackball", "Wireless trackball", "49.00", 0, 1L)));
+
+        assertEquals(List.of(1L), ids(index.search(criteria("mouse"))));
+        assertEquals(List.of(), ids(index.search(criteria("keyboard"))));
+        assertEquals(List.of(3L), ids(index.search(criteria("track"))));
+        assertEquals(4, index.size());
+    }
+
+    private static SearchCriteria criteria(String query) {
+        return new SearchCriteria(query, null, null, null, false, 0, 20);
+    }
+
+    private static List<Long> ids(ProductSearchResult result) {
+        return result.getItems().stream().map(ProductDTO::getId).toList();
+    }
+
+    private static ProductDTO product(Long id, String name, String description, String price, int stock, Long categoryId) {
+        return new ProductDTO(id, "SKU-" + id, name, description, new BigDecimal(price), stock, categoryId, "Category " + categoryId, null, null);
+    }
+}
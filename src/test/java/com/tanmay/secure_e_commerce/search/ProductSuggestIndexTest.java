@@ -0,0 +1,77 @@
+package com.tanmay.secure_e_commerce.search;
+
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.dto.ProductSuggestion;
+import com.tanmay.secure_e_commerce.event.ProductsSoldEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductSuggestIndexTest {
+
+    private final ProductSuggestIndex index = new ProductSuggestIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(Stream.of(
+                product(1L, "iPhone 15"),
+                product(2L, "iPhone 15 Pro"),
+                product(3L, "iPad Air"),
+                product(4L, "Café Crème Mug"),
+                product(5L, "Kettle")),
+                Map.of(2L, 40L, 3L, 10L));
+    }
+
+    @Test
+    void ranksMatchesBySales() {
+        assertEquals(List.of(2L, 3L, 1L), ids(index.suggest("i", 10)));
+        assertEquals(List.of(2L, 1L), ids(index.suggest("IPHONE 1", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("iph", 1)));
+        assertEquals(List.of(4L), ids(index.suggest("cafe cr", 10)));
+        assertEquals(List.of(), ids(index.suggest("phone", 10)));
+        assertEquals(List.of(), ids(index.suggest("  ", 10)));
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("i", 0));
+    }
+
+    @Test
+    void followsRenamesDeletesAndSales() {
+        index.apply(List.of(1L, 3L, 6L), Map.of(
+                1L, product(1L, "Pixel 9"),
+                6L, product(6L, "iPod Classic")));
+        index.onProductsSold(new ProductsSoldEvent(Map.of(6L, 50, 1L, 5)));
+
+        assertEquals(List.of(6L, 2L), ids(index.suggest("ip", 10)));
+        assertEquals("Pixel 9", index.suggest("pix", 10).get(0).getName());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void mergesTheOverlayOnceItIsFull() {
+        ReflectionTestUtils.setField(index, "overlaySize", 2);
+        index.apply(List.of(6L, 7L, 8L, 5L), Map.of(
+                6L, product(6L, "iPod Nano"),
+                7L, product(7L, "iMac"),
+                8L, product(8L, "Kettlebell")));
+        index.onProductsSold(new ProductsSoldEvent(Map.of(7L, 100, 1L, 60)));
+
+        assertEquals(List.of(7L, 1L, 2L, 3L, 6L), ids(index.suggest("i", 10)));
+        assertEquals(List.of(8L), ids(index.suggest("kett", 10)));
+        assertEquals(7, index.size());
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).toList();
+    }
+
+    private static ProductDTO product(Long id, String name) {
+        return new ProductDTO(id, "SKU-" + id, name, null, BigDecimal.ONE, 1, 1L, "Category", null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.tanmay.secure_e_commerce.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBCryptPasswordEncoderTest {
+
+    private final AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5, 1);
+
+    @Test
+    void hashesAtAnotherCostStillMatchButAreFlaggedForRehash() {
+        String weaker = new BCryptPasswordEncoder(4).encode("secret");
+        String current = encoder.encode("secret");
+        String slightlyStronger = new BCryptPasswordEncoder(6).encode("secret");
+        String muchStronger = new BCryptPasswordEncoder(7).encode("secret");
+
+        assertTrue(encoder.matches("secret", weaker));
+        assertTrue(encoder.matches("secret", muchStronger));
+        assertTrue(encoder.upgradeEncoding(weaker));
+        assertFalse(encoder.upgradeEncoding(current));
+        assertFalse(encoder.upgradeEncoding(slightlyStronger));
+        assertTrue(encoder.upgradeEncoding(muchStronger));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        int strength = AdaptiveBCryptPasswordEncoder.calibrate(1, 4, 6);
+        assertTrue(strength >= 4 && strength <= 6, "strength " + strength);
+        // A target far beyond any hardware is capped
+        assertTrue(AdaptiveBCryptPasswordEncoder.calibrate(10_000_000, 4, 6) == 6);
+    }
+}
@@ -0,0 +1,73 @@
+package com.tanmay.secure_e_commerce.security;
+
+import com.tanmay.secure_e_commerce.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Stands in for a slow hash that only finishes when the test lets it
+    private final PasswordEncoder slow = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    };
+
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void hashesBeyondThePoolAndQueueAreRefusedAtOnce() throws Exception {
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hashed:a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hashed:x"));
+        while (meterRegistry.get("auth.hashing.queue.size").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.matches("c", "hashed:c"));
+        assertEquals(1, meterRegistry.get("auth.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertEquals(false, queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, meterRegistry.get("auth.hashing.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void encodeRunsOnThePool() {
+        assertEquals("hashed:secret", encoder.encode("secret"));
+        assertEquals(1, meterRegistry.get("auth.hashing.duration").tag("operation", "encode").timer().count());
+    }
+}
@@ -0,0 +1,100 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.dto.AuthRequest;
+import com.tanmay.secure_e_commerce.dto.AuthResponse;
+import com.tanmay.secure_e_commerce.enums.Role;
+import com.tanmay.secure_e_commerce.exception.UnauthorizedException;
+import com.tanmay.secure_e_commerce.repository.UserRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.security.JwtUtil;
+import com.tanmay.secure_e_commerce.security.TokenClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        username = "refresher" + System.nanoTime();
+        authService.register(username, "s3cret-pass", username + "@example.com", Role.CUSTOMER);
+    }
+
+    @Test
+    void refreshRotatesTheToken() {
+        AuthResponse login = authService.login(new AuthRequest(username, "s3cret-pass"));
+        assertNotNull(login.getRefreshToken());
+
+        AuthResponse refreshed = authService.refresh(login.getRefreshToken());
+        TokenClaims claims = jwtUtil.parseToken(refreshed.getToken());
+        assertEquals(username, claims.subject());
+        assertEquals("CUSTOMER", claims.role());
+        assertNotNull(claims.userId());
+        assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+
+        assertNotNull(authService.refresh(refreshed.getRefreshToken()).getToken());
+    }
+
+    @Test
+    void reusedTokenRevokesTheWholeFamily() {
+        AuthResponse login = authService.login(new AuthRequest(username, "s3cret-pass"));
+        AuthResponse refreshed = authService.refresh(login.getRefreshToken());
+
+        assertThrows(UnauthorizedException.class, () -> authService.refresh(login.getRefreshToken()));
+        // The legitimate holder's newer token dies with it
+        assertThrows(UnauthorizedException.class, () -> authService.refresh(refreshed.getRefreshToken()));
+
+        // Other logins are separate families
+        AuthResponse again = authService.login(new AuthRequest(username, "s3cret-pass"));
+        assertNotNull(authService.refresh(again.getRefreshToken()).getToken());
+    }
+
+    @Test
+    void loginRehashesAPasswordStoredAtAnotherCost() {
+        userDetailsService.updatePassword(userDetailsService.loadUserByUsername(username), new BCryptPasswordEncoder(4).encode("s3cret-pass"));
+        String weak = userRepository.findByUsername(username).orElseThrow().getPassword();
+        assertTrue(passwordEncoder.upgradeEncoding(weak));
+
+        authService.login(new AuthRequest(username, "s3cret-pass"));
+
+        String rehashed = userRepository.findByUsername(username).orElseThrow().getPassword();
+        assertNotEquals(weak, rehashed);
+        assertFalse(passwordEncoder.upgradeEncoding(rehashed));
+        assertNotNull(authService.login(new AuthRequest(username, "s3cret-pass")).getToken());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThrows(UnauthorizedException.class, () -> authService.refresh("not-a-token"));
+    }
+}
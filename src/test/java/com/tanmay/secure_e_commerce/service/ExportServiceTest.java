@@ -0,0 +1,129 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.dto.OrderExportRow;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.enums.DataFormat;
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportServiceTest {
+
+    private static final long ALLOWED_GROWTH_BYTES = 16L * 1024 * 1024;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService();
+        ReflectionTestUtils.setField(exportService, "objectMapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(exportService, "flushRows", 1000);
+    }
+
+    @Test
+    void groupsOrderLinesIntoOneJsonObjectPerOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.writeOrders(orderRows(3), DataFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":0") && lines[0].contains("\"productId\":1"));
+        assertTrue(lines[1].contains("\"id\":1") && lines[1].contains("\"orderItems\":[{"));
+    }
+
+    @Test
+    void quotesCsvFieldsThatNeedIt() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProductDTO product = new ProductDTO(7L, "MUG-7", "Mug, \"large\"", null, new BigDecimal("9.50"), 3, 2L, "Kitchen", null, null);
+
+        exportService.writeProducts(Stream.of(product), DataFormat.CSV, out);
+
+        assertEquals("id,sku,name,description,price,stock,category_id,category_name\n"
+                + "7,MUG-7,\"Mug, \"\"large\"\"\",,9.50,3,2,Kitchen\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void orderExportMemoryDoesNotGrowWithRowCount() throws IOException {
+        long small = peakHeapDuring(10_000, (rows, out) -> exportService.writeOrders(orderRows(rows), DataFormat.NDJSON, out));
+        long large = peakHeapDuring(2_000_000, (rows, out) -> exportService.writeOrders(orderRows(rows), DataFormat.NDJSON, out));
+
+        assertTrue(large - small < ALLOWED_GROWTH_BYTES,
+                "peak live heap grew by " + (large - small) + " bytes between 10k and 2M rows");
+    }
+
+    @Test
+    void productExportMemoryDoesNotGrowWithRowCount() throws IOException {
+        long small = peakHeapDuring(10_000, (rows, out) -> exportService.writeProducts(productRows(rows), DataFormat.CSV, out));
+        long large = peakHeapDuring(2_000_000, (rows, out) -> exportService.writeProducts(productRows(rows), DataFormat.CSV, out));
+
+        assertTrue(large - small < ALLOWED_GROWTH_BYTES,
+                "peak live heap grew by " + (large - small) + " bytes between 10k and 2M rows");
+    }
+
+    // Two lines per order, generated lazily the way a database cursor hands them over
+    private static Stream<OrderExportRow> orderRows(long count) {
+        return LongStream.range(0, count).mapToObj(i -> new OrderExportRow(
+                i / 2, 1L, "customer1", OrderStatus.CREATED, new BigDecimal("42.00"),
+                i, i % 100, "Product " + (i % 100), 2, new BigDecimal("10.50")));
+    }
+
+    private static Stream<ProductDTO> productRows(long count) {
+        return LongStream.range(0, count).mapToObj(i -> new ProductDTO(
+                i, "SKU-" + i, "Product " + i, "Description, with a comma", new BigDecimal("19.99"), 5, i % 10, "Category", null, null));
+    }
+
+    private static long peakHeapDuring(long rows, Export export) throws IOException {
+        SamplingSink sink = new SamplingSink(Math.max(1, rows / 1000 / 10));
+        export.run(rows, sink);
+        return sink.peak;
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void run(long rows, OutputStream out) throws IOException;
+    }
+
+    // Discards the bytes and samples the live heap after a GC every few flushes
+    private static class SamplingSink extends OutputStream {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final long sampleEvery;
+        private long flushes;
+        private long peak;
+
+        SamplingSink(long sampleEvery) {
+            this.sampleEvery = sampleEvery;
+        }
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public void flush() {
+            if (++flushes % sampleEvery == 0) {
+                System.gc();
+                peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+            }
+        }
+    }
+}
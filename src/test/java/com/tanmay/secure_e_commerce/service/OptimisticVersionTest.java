@@ -0,0 +1,159 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.entity.Category;
+import com.tanmay.secure_e_commerce.dto.ImportReport;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.enums.DataFormat;
+import com.tanmay.secure_e_commerce.exception.ConflictException;
+import com.tanmay.secure_e_commerce.repository.CategoryRepository;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OptimisticVersionTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    // Category lookups sit between the product read and its flush, so a checkout can be slipped in there
+    @MockitoSpyBean
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    private final AtomicReference<Runnable> checkoutMidUpdate = new AtomicReference<>();
+
+    @BeforeEach
+    void interceptCategoryLookups() {
+        // The repository is a proxy, so the spy reaches it through its default delegating answer
+        Answer<?> delegate = mockingDetails(categoryRepository).getMockCreationSettings().getDefaultAnswer();
+        Answer<?> checkoutFirst = invocation -> {
+            Runnable checkout = checkoutMidUpdate.getAndSet(null);
+            if (checkout != null) {
+                checkout.run();
+            }
+            return delegate.answer(invocation);
+        };
+        doAnswer(checkoutFirst).when(categoryRepository).findById(any());
+        doAnswer(checkoutFirst).when(categoryRepository).getReferenceById(any());
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void adminEditFromAStaleReadDoesNotOverwriteACheckout() {
+        Category category = categoryRepository.save(new Category(null, "Versioned " + System.nanoTime(), null, null));
+        Product saved = productRepository.save(new Product(null, null, "Kettle", null, new BigDecimal("30.00"), 10, category, false, null, null));
+        ProductDTO read = productService.getProductById(saved.getId());
+
+        login("customer1");
+        orderService.placeOrder(new OrderDTO(null, null, null, List.of(new OrderItemDTO(null, saved.getId(), null, 3, null)), null, null));
+
+        login("admin");
+        read.setPrice(new BigDecimal("25.00"));
+        assertThrows(ConflictException.class, () -> productService.updateProduct(saved.getId(), read));
+        assertEquals(7, productRepository.findById(saved.getId()).orElseThrow().getStock());
+
+        // Re-read at the current version, the edit goes through and bumps it
+        Product current = productRepository.findById(saved.getId()).orElseThrow();
+        read.setStock(current.getStock());
+        read.setVersion(current.getVersion());
+        ProductDTO updated = productService.updateProduct(saved.getId(), read);
+        assertEquals(current.getVersion() + 1, updated.getVersion());
+        assertEquals(0, new BigDecimal("25.00").compareTo(productRepository.findById(saved.getId()).orElseThrow().getPrice()));
+    }
+
+    @Test
+    void updateWithoutVersionThatLosesToACheckoutIsNotReapplied() {
+        Category category = categoryRepository.save(new Category(null, "Unversioned " + System.nanoTime(), null, null));
+        Product saved = productRepository.save(new Product(null, null, "Toaster", null, new BigDecimal("40.00"), 10, category, false, null, null));
+        ProductDTO edit = productService.getProductById(saved.getId());
+        edit.setVersion(null);
+        edit.setPrice(new BigDecimal("35.00"));
+
+        login("admin");
+        checkoutMidUpdate.set(() -> checkout(saved.getId(), 3));
+        assertThrows(ConflictException.class, () -> productService.updateProduct(saved.getId(), edit));
+
+        Product current = productRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(7, current.getStock());
+        assertEquals(0, new BigDecimal("40.00").compareTo(current.getPrice()));
+    }
+
+    @Test
+    void importRowWhoseProductChangedMidChunkIsReportedNotReapplied() throws Exception {
+        Category category = categoryRepository.save(new Category(null, "Reimported " + System.nanoTime(), null, null));
+        String sku = "RACE-" + System.nanoTime();
+        Product saved = productRepository.save(new Product(null, sku, "Blender", null, new BigDecimal("60.00"), 10, category, false, null, null));
+
+        login("admin");
+        checkoutMidUpdate.set(() -> checkout(saved.getId(), 3));
+        String csv = "sku,name,price,stock,category\n" + sku + ",Blender Pro,60,20," + category.getName() + "\n";
+        ImportReport report = productImportService.importProducts(DataFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(0, report.getUpdated());
+        assertEquals(1, report.getErrors().size());
+        assertEquals(sku, report.getErrors().get(0).sku());
+        assertEquals(7, productRepository.findById(saved.getId()).orElseThrow().getStock());
+    }
+
+    // Commits a customer's order from another thread, outside the caller's transaction
+    private void checkout(Long productId, int quantity) {
+        CompletableFuture.runAsync(() -> {
+            login("customer1");
+            try {
+                orderService.placeOrder(new OrderDTO(null, null, null, List.of(new OrderItemDTO(null, productId, null, quantity, null)), null, null));
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        }).join();
+    }
+
+    private void login(String username) {
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,109 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 40;
+    private static final int INITIAL_STOCK = 150;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void concurrentOrdersOnHotProductsNeverOversell() throws Exception {
+        List<Long> hotProducts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            hotProducts.add(productRepository.save(new Product(null, null, "Hot " + i, null, new BigDecimal("5.00"), INITIAL_STOCK, null, false, null, null)).getId());
+        }
+        UserDetails customer = userDetailsService.loadUserByUsername("customer1");
+
+        Map<Long, AtomicInteger> sold = new ConcurrentHashMap<>();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities()));
+                start.await();
+                for (int n = 0; n < ORDERS_PER_THREAD; n++) {
+                    // Every order touches all hot products, listed in a random order
+                    List<Long> lines = new ArrayList<>(hotProducts);
+                    Collections.shuffle(lines, ThreadLocalRandom.current());
+                    List<OrderItemDTO> items = new ArrayList<>();
+                    for (Long productId : lines) {
+                        items.add(new OrderItemDTO(null, productId, null, ThreadLocalRandom.current().nextInt(1, 4), null));
+                    }
+                    try {
+                        orderService.placeOrder(new OrderDTO(null, null, null, items, null, null));
+                        items.forEach(item -> sold.computeIfAbsent(item.getProductId(), id -> new AtomicInteger())
+                                .addAndGet(item.getQuantity()));
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertTrue(rejected.get() > 0, "demand should exceed stock");
+        for (Long productId : hotProducts) {
+            int stock = productRepository.findById(productId).orElseThrow().getStock();
+            int soldQuantity = sold.getOrDefault(productId, new AtomicInteger()).get();
+            assertTrue(stock >= 0);
+            assertEquals(INITIAL_STOCK - soldQuantity, stock);
+        }
+        // Every accepted order has a line for each hot product, rejected ones left nothing behind
+        assertEquals(THREADS * ORDERS_PER_THREAD - rejected.get(), jdbcTemplate.queryForObject(
+                "select count(distinct order_id) from order_items where product_id = ?", Integer.class, hotProducts.get(0)));
+    }
+}
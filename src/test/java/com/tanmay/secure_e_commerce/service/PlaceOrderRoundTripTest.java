@@ -0,0 +1,139 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PlaceOrderRoundTripTest {
+
+    private static final AtomicInteger roundTrips = new AtomicInteger();
+
+    // Only the order's own statements count, not scheduled jobs that happen to run meanwhile
+    private static volatile Thread countedThread;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 50; i++) {
+            productIds.add(productRepository.save(
+                    new Product(null, null, "Line " + i, null, new BigDecimal("3.00"), 1_000, null, false, null, null)).getId());
+        }
+        UserDetails customer = userDetailsService.loadUserByUsername("customer1");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statementsPerOrderDoNotGrowWithLineCount() {
+        placeOrder(3);
+
+        int oneLine = placeOrder(1);
+        int fiveLines = placeOrder(5);
+        int fiftyLines = placeOrder(50);
+
+        // select products, batched stock update, order insert, batched item insert, outbox insert
+        assertTrue(oneLine <= 5, "one line took " + oneLine + " round trips");
+        assertEquals(oneLine, fiveLines);
+        assertEquals(oneLine, fiftyLines);
+    }
+
+    private int placeOrder(int lines) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(new OrderItemDTO(null, productIds.get(i), null, 1, null));
+        }
+        roundTrips.set(0);
+        countedThread = Thread.currentThread();
+        orderService.placeOrder(new OrderDTO(null, null, null, items, null, null));
+        return roundTrips.get();
+    }
+
+    // Counts statement executions, leaving out sequence calls that only happen once per allocation block
+    @TestConfiguration
+    static class RoundTripCounting {
+
+        private static final Set<String> EXECUTE = Set.of(
+                "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource, null) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, String sql) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (result instanceof Connection connection) {
+                    return proxy(Connection.class, connection, null);
+                }
+                if (result instanceof Statement statement) {
+                    String prepared = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                    return proxy((Class<Statement>) method.getReturnType(), statement, prepared);
+                }
+                if (target instanceof Statement && Thread.currentThread() == countedThread && EXECUTE.contains(method.getName())) {
+                    String executed = sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : "";
+                    if (!executed.toLowerCase().contains("next value for") && !executed.toLowerCase().contains("nextval")) {
+                        roundTrips.incrementAndGet();
+                    }
+                }
+                return result;
+            });
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.dto.ImportReport;
+import com.tanmay.secure_e_commerce.dto.ImportRowError;
+import com.tanmay.secure_e_commerce.dto.ProductDTO;
+import com.tanmay.secure_e_commerce.entity.Category;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.enums.DataFormat;
+import com.tanmay.secure_e_commerce.repository.CategoryRepository;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "import.chunk-size=2")
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    private String category;
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = UUID.randomUUID().toString().substring(0, 8);
+        category = "Imports " + prefix;
+        categoryRepository.save(new Category(null, category, null, null));
+
+        UserDetails admin = userDetailsService.loadUserByUsername("admin");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void csvImportCreatesValidRowsAndReportsTheRest() throws IOException {
+        String csv = "sku,name,description,price,stock,category\n"
+                + sku(1) + ",Lamp,\"Warm, dimmable\",19.90,5," + category + "\n"
+                + sku(2) + ",Desk,,120,2," + category + "\n"
+                + sku(3) + ",Chair,,abc,1," + category + "\n"
+                + sku(4) + ",Shelf,,30,1,Nowhere\n"
+                + sku(5) + ",,,30,1," + category + "\n"
+                + sku(1) + ",Lamp again,,19.90,5," + category + "\n";
+
+        ImportReport report = productImportService.importProducts(DataFormat.CSV, stream(csv));
+
+        assertEquals(6, report.getTotal());
+        assertEquals(2, report.getCreated());
+        assertEquals(1, report.getUpdated());
+        assertEquals(3, report.getFailed());
+        List<Long> failedLines = report.getErrors().stream().map(ImportRowError::line).sorted().toList();
+        assertEquals(List.of(4L, 5L, 6L), failedLines);
+
+        // Chunk size 2: the second sku(1) row landed in a later chunk and updated the first
+        Product lamp = productRepository.findBySkuIn(List.of(sku(1))).get(0);
+        assertEquals("Lamp again", lamp.getName());
+        assertEquals(0, new BigDecimal("19.90").compareTo(lamp.getPrice()));
+    }
+
+    @Test
+    void ndjsonReimportUpdatesChangedRowsAndSkipsUnchangedOnes() throws IOException {
+        String first = "{\"sku\":\"" + sku(1) + "\",\"name\":\"Mug\",\"price\":4.5,\"stock\":10,\"category\":\"" + category + "\"}\n"
+                + "{\"sku\":\"" + sku(2) + "\",\"name\":\"Cup\",\"price\":3,\"stock\":10,\"category\":\"" + category + "\"}\n";
+        productImportService.importProducts(DataFormat.NDJSON, stream(first));
+
+        String second = "{\"sku\":\"" + sku(1) + "\",\"name\":\"Mug\",\"price\":4.5,\"stock\":10,\"category\":\"" + category + "\"}\n"
+                + "{\"sku\":\"" + sku(2) + "\",\"name\":\"Cup\",\"price\":3,\"stock\":7,\"category\":\"" + category + "\"}\n"
+                + "not json\n";
+        ImportReport report = productImportService.importProducts(DataFormat.NDJSON, stream(second));
+
+        assertEquals(3, report.getTotal());
+        assertEquals(0, report.getCreated());
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getUnchanged());
+        assertEquals(1, report.getFailed());
+        assertEquals(7, productRepository.findBySkuIn(List.of(sku(2))).get(0).getStock());
+    }
+
+    @Test
+    void updateWithoutSkuKeepsTheImportKey() throws IOException {
+        String row = "{\"sku\":\"" + sku(1) + "\",\"name\":\"Vase\",\"price\":12,\"stock\":3,\"category\":\"" + category + "\"}\n";
+        productImportService.importProducts(DataFormat.NDJSON, stream(row));
+        Product vase = productRepository.findBySkuIn(List.of(sku(1))).get(0);
+
+        productService.updateProduct(vase.getId(), new ProductDTO(null, null, "Tall vase", null, new BigDecimal("14"), 3,
+                vase.getCategory().getId(), null, null, null));
+
+        assertEquals(sku(1), productRepository.findById(vase.getId()).orElseThrow().getSku());
+        assertEquals(1, productImportService.importProducts(DataFormat.NDJSON, stream(row)).getUpdated());
+    }
+
+    @Test
+    void csvHeaderWithoutRequiredColumnsIsRejectedUpFront() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> productImportService.importProducts(DataFormat.CSV, stream("sku,name\nA,B\n")));
+
+        assertTrue(e.getMessage().contains("missing column: price"));
+    }
+
+    private String sku(int n) {
+        return prefix + "-" + n;
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,94 @@
+package com.tanmay.secure_e_commerce.service;
+
+import com.tanmay.secure_e_commerce.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+    private TransactionRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                rollbacks.incrementAndGet();
+            }
+        };
+        retry = new TransactionRetry();
+        ReflectionTestUtils.setField(retry, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(retry, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(retry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retry, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(retry, "maxBackoffMs", 2L);
+    }
+
+    @Test
+    void rerunsConflictsInAFreshTransactionUntilOneWins() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute("test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(2, rollbacks.get());
+        assertEquals(2, meterRegistry.counter("transaction.conflicts", "operation", "test").count());
+        assertEquals(2, meterRegistry.counter("transaction.retries", "operation", "test").count());
+    }
+
+    @Test
+    void givesUpWithConflictAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConflictException.class, () -> retry.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("deadlock");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1, meterRegistry.counter("transaction.retries.exhausted", "operation", "test").count());
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> retry.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Insufficient stock");
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.counter("transaction.conflicts", "operation", "test").count());
+    }
+}
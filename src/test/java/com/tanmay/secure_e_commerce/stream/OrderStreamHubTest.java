@@ -0,0 +1,159 @@
+package com.tanmay.secure_e_commerce.stream;
+
+import com.tanmay.secure_e_commerce.dto.OrderDTO;
+import com.tanmay.secure_e_commerce.dto.OrderItemDTO;
+import com.tanmay.secure_e_commerce.entity.Product;
+import com.tanmay.secure_e_commerce.enums.OrderEventType;
+import com.tanmay.secure_e_commerce.enums.OrderStatus;
+import com.tanmay.secure_e_commerce.event.OrderLifecycleEvent;
+import com.tanmay.secure_e_commerce.outbox.OrderEventLogSink;
+import com.tanmay.secure_e_commerce.outbox.OutboxRelay;
+import com.tanmay.secure_e_commerce.repository.ProductRepository;
+import com.tanmay.secure_e_commerce.security.CustomUserDetailsService;
+import com.tanmay.secure_e_commerce.security.JwtUtil;
+import com.tanmay.secure_e_commerce.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {"outbox.relay.interval-ms=3600000", "orders.stream.max-subscribers=3"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+// Streams stay open for the whole context, so the test that fills up to the limit goes last
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OrderStreamHubTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderStreamHub orderStreamHub;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderEventLogSink eventLogSink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @Order(1)
+    void orderChangesArePushedToTheOwnerAndAdmins() throws Exception {
+        MvcResult customerStream = open("customer1", "CUSTOMER");
+        MvcResult adminStream = open("admin", "ADMIN");
+
+        Long productId = productRepository.save(new Product(null, null, "Streamed", null, new BigDecimal("3.00"), 10, null, false, null, null)).getId();
+        authenticate("customer1");
+        Long orderId = orderService.placeOrder(new OrderDTO(null, null, null, List.of(new OrderItemDTO(null, productId, null, 1, null)), null, null)).getId();
+        authenticate("admin");
+        orderService.updateOrderStatus(orderId, OrderStatus.CONFIRMED);
+        outboxRelay.relay();
+
+        for (MvcResult stream : List.of(customerStream, adminStream)) {
+            String body = await(stream, "\"status\":\"CONFIRMED\"");
+            assertTrue(body.contains("event:ORDER_CREATED"), body);
+            assertTrue(body.indexOf("event:ORDER_CREATED") < body.indexOf("event:ORDER_STATUS_CHANGED"), body);
+            assertTrue(body.contains("\"orderId\":" + orderId), body);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void eventsLoggedByAnotherInstancesRelayArePushedEvenWhenCommittedOutOfOrder() throws Exception {
+        MvcResult adminStream = open("admin", "ADMIN");
+        long earlier = jdbcTemplate.queryForObject("select nextval('outbox_events_seq')", Long.class);
+        long later = jdbcTemplate.queryForObject("select nextval('outbox_events_seq')", Long.class);
+
+        // Another instance's relay commits the later id first
+        eventLogSink.publish(List.of(event(later, "SHIPPED")));
+        await(adminStream, "\"status\":\"SHIPPED\"");
+        eventLogSink.publish(List.of(event(earlier, "DELIVERED")));
+        String body = await(adminStream, "\"status\":\"DELIVERED\"");
+
+        assertTrue(body.contains("id:" + later), body);
+        assertTrue(body.contains("id:" + earlier), body);
+    }
+
+    @Test
+    @Order(3)
+    void streamsBeyondTheLimitAreRefused() throws Exception {
+        while (orderStreamHub.subscriberCount() < 3) {
+            open("customer1", "CUSTOMER");
+        }
+
+        MvcResult refused = mockMvc.perform(get("/api/orders/stream").header("Authorization", token("customer1", "CUSTOMER"))).andReturn();
+        assertEquals(503, refused.getResponse().getStatus());
+        assertEquals("1", refused.getResponse().getHeader("Retry-After"));
+    }
+
+    private static OrderLifecycleEvent event(long id, String status) {
+        return new OrderLifecycleEvent(id, id, 1, OrderEventType.ORDER_STATUS_CHANGED,
+                "{\"orderId\":" + id + ",\"userId\":0,\"status\":\"" + status + "\"}", Instant.now());
+    }
+
+    private MvcResult open(String username, String role) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/orders/stream").header("Authorization", token(username, role))).andReturn();
+        assertTrue(result.getRequest().isAsyncStarted());
+        return result;
+    }
+
+    private String await(MvcResult stream, String text) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = stream.getResponse().getContentAsString();
+        while (!body.contains(text) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = stream.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains(text), body);
+        return body;
+    }
+
+    private String token(String username, String role) {
+        return "Bearer " + jwtUtil.generateToken(userDetailsService.loadUserByUsername(username), role);
+    }
+
+    private void authenticate(String username) {
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}